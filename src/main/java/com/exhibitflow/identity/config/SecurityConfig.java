@@ -1,13 +1,20 @@
 package com.exhibitflow.identity.config;
 
+import com.exhibitflow.identity.security.AuthorizationSnapshotCache;
+import com.exhibitflow.identity.security.BestEffortRehashAuthenticationProvider;
 import com.exhibitflow.identity.security.CustomUserDetailsService;
 import com.exhibitflow.identity.security.JwtAuthenticationFilter;
+import com.exhibitflow.identity.security.PasswordEncoderFactory;
+import com.exhibitflow.identity.security.PasswordHashingExecutor;
+import com.exhibitflow.identity.security.PooledPasswordEncoder;
+import com.exhibitflow.identity.service.AuthorizationEventStream;
 import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -17,9 +24,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 
@@ -30,7 +36,10 @@ import org.springframework.web.cors.CorsConfiguration;
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
+    private final AuthorizationSnapshotCache authorizationSnapshotCache;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordEncoderFactory passwordEncoderFactory;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -48,6 +57,8 @@ public class SecurityConfig {
         )
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Names users and roles as they change, so only for trusted services
+                        .requestMatchers("/oauth/events").hasAuthority(AuthorizationEventStream.SUBSCRIBE_AUTHORITY)
                         .requestMatchers(
                                 "/auth/**",
                                 "/oauth/**",
@@ -63,6 +74,10 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                // A missing or rejected bearer token is a 401, not a 403
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
@@ -71,9 +86,12 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
+        DaoAuthenticationProvider authProvider = new BestEffortRehashAuthenticationProvider(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserCache(authorizationSnapshotCache);
+        // Rehashes a stored password whose algorithm or cost is outdated after it was verified,
+        // unless the hashing pool is saturated
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -82,8 +100,9 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // Hashes on a bounded pool rather than request threads; see PasswordHashingExecutor
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder() {
+        return new PooledPasswordEncoder(passwordEncoderFactory.create(), passwordHashingExecutor);
     }
 }
@@ -1,18 +1,27 @@
 package com.exhibitflow.identity.controller;
 
 import com.exhibitflow.identity.dto.AdminUserCreationRequest;
+import com.exhibitflow.identity.dto.BulkRoleChangeRequest;
+import com.exhibitflow.identity.dto.BulkRoleChangeResponse;
 import com.exhibitflow.identity.dto.UserDto;
+import com.exhibitflow.identity.dto.UserImportResult;
+import com.exhibitflow.identity.service.UserImportService;
 import com.exhibitflow.identity.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/admin/users")
 @RequiredArgsConstructor
@@ -21,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class AdminUserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -29,4 +39,37 @@ public class AdminUserController {
         UserDto userDto = userService.createUserByAdmin(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(userDto);
     }
+
+    @PostMapping("/roles/grant")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Grant roles in bulk",
+            description = "Admin grants roles to a list of users or to every holder of a role in one operation")
+    public ResponseEntity<BulkRoleChangeResponse> grantRolesInBulk(@Valid @RequestBody BulkRoleChangeRequest request) {
+        BulkRoleChangeResponse response = userService.grantRolesInBulk(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/roles/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Revoke roles in bulk",
+            description = "Admin revokes roles from a list of users or from every holder of a role in one operation")
+    public ResponseEntity<BulkRoleChangeResponse> revokeRolesInBulk(@Valid @RequestBody BulkRoleChangeRequest request) {
+        BulkRoleChangeResponse response = userService.revokeRolesInBulk(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import users",
+            description = "Admin creates users in bulk from NDJSON (one user creation request per line) or CSV with a "
+                    + "header row; rows that fail are reported by line number without stopping the import")
+    public ResponseEntity<UserImportResult> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType("text/csv").includes(contentType)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        UserImportResult result = userImportService.importUsers(body, format);
+        return ResponseEntity.ok(result);
+    }
 }
@@ -1,13 +1,29 @@
 package com.exhibitflow.identity.controller;
 
+import com.exhibitflow.identity.dto.BatchIntrospectionRequest;
+import com.exhibitflow.identity.dto.PermissionDictionaryResponse;
 import com.exhibitflow.identity.dto.TokenIntrospectionResponse;
+import com.exhibitflow.identity.exception.ResourceNotFoundException;
+import com.exhibitflow.identity.security.PermissionDictionary;
+import com.exhibitflow.identity.security.SigningKeyRing;
+import com.exhibitflow.identity.service.AuthorizationEventStream;
 import com.exhibitflow.identity.service.TokenIntrospectionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,7 +32,16 @@ import java.util.Map;
 @Tag(name = "OAuth Token Management", description = "OAuth2 token introspection and validation endpoints")
 public class OAuthController {
 
+    // When every subscriber slot is taken; long enough for a few subscribers to go away
+    private static final long EVENTS_RETRY_AFTER_SECONDS = 30;
+
     private final TokenIntrospectionService tokenIntrospectionService;
+    private final AuthorizationEventStream authorizationEventStream;
+    private final SigningKeyRing signingKeyRing;
+    private final PermissionDictionary permissionDictionary;
+
+    @Value("${jwt.jwks.cache-max-age:PT1H}")
+    private Duration jwksCacheMaxAge;
 
     @PostMapping("/introspect")
     @Operation(
@@ -28,6 +53,16 @@ public class OAuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/introspect/batch")
+    @Operation(
+        summary = "Batch token introspection",
+        description = "Introspect up to jwt.introspection.batch-max-size tokens at once; results are returned in request order"
+    )
+    public ResponseEntity<List<TokenIntrospectionResponse>> introspectTokens(
+            @Valid @RequestBody BatchIntrospectionRequest request) {
+        return ResponseEntity.ok(tokenIntrospectionService.introspectTokens(request.getTokens()));
+    }
+
     @PostMapping("/validate")
     @Operation(
         summary = "Simple token validation",
@@ -37,4 +72,64 @@ public class OAuthController {
         boolean isValid = tokenIntrospectionService.validateToken(token);
         return ResponseEntity.ok(Map.of("valid", isValid));
     }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Authorization change stream",
+        description = "Server-sent events for disabled users, role and permission changes and revoked tokens; "
+                + "requires the authorization:subscribe permission. Reconnect with Last-Event-ID to resume, "
+                + "purge all cached results on a reset event"
+    )
+    public ResponseEntity<SseEmitter> events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return authorizationEventStream.subscribe(lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(EVENTS_RETRY_AFTER_SECONDS))
+                        .build());
+    }
+
+    @GetMapping(value = "/jwks", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "JSON Web Key Set",
+        description = "Public keys for verifying tokens locally; cacheable, revalidate with If-None-Match"
+    )
+    public ResponseEntity<String> jwks(WebRequest request) {
+        String etag = signingKeyRing.getJwksEtag();
+        CacheControl cacheControl = CacheControl.maxAge(jwksCacheMaxAge).cachePublic();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(signingKeyRing.getJwksJson());
+    }
+
+    @GetMapping("/permission-dictionary")
+    @Operation(
+        summary = "Permission dictionary",
+        description = "Ordered permission names referenced by index from compact access tokens (perm_ver/perm_bits claims)"
+    )
+    public ResponseEntity<PermissionDictionaryResponse> permissionDictionary(
+            @RequestParam(required = false) String version) {
+        PermissionDictionary.Version dictionary = version == null
+                ? permissionDictionary.getCurrent()
+                : permissionDictionary.find(version)
+                        .orElseThrow(() -> new ResourceNotFoundException("Unknown permission dictionary version: " + version));
+
+        // A given version never changes, only which version is current does
+        CacheControl cacheControl = version == null
+                ? CacheControl.maxAge(jwksCacheMaxAge).cachePublic()
+                : CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+        return ResponseEntity.ok()
+                .eTag(dictionary.id())
+                .cacheControl(cacheControl)
+                .body(PermissionDictionaryResponse.builder()
+                        .version(dictionary.id())
+                        .permissions(dictionary.names())
+                        .build());
+    }
 }
@@ -1,7 +1,9 @@
 package com.exhibitflow.identity.controller;
 
 import com.exhibitflow.identity.dto.CreatePermissionRequest;
+import com.exhibitflow.identity.dto.CursorPage;
 import com.exhibitflow.identity.dto.PermissionResponse;
+import com.exhibitflow.identity.dto.TotalCount;
 import com.exhibitflow.identity.dto.UpdatePermissionRequest;
 import com.exhibitflow.identity.service.PermissionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -46,6 +48,18 @@ public class PermissionController {
         return ResponseEntity.ok(permissions);
     }
 
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get permissions by cursor",
+            description = "Admin retrieves permissions in name order after an opaque cursor, starting with an empty cursor")
+    public ResponseEntity<CursorPage<PermissionResponse>> getPermissionsAfter(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") TotalCount count) {
+        CursorPage<PermissionResponse> permissions = permissionService.getPermissionsAfter(cursor, size, count);
+        return ResponseEntity.ok(permissions);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get permission by ID", description = "Admin retrieves a specific permission by its ID")
@@ -45,6 +45,18 @@ public class RoleController {
         return ResponseEntity.ok(roles);
     }
 
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get roles by cursor",
+            description = "Admin retrieves roles in name order after an opaque cursor, starting with an empty cursor")
+    public ResponseEntity<CursorPage<RoleResponse>> getRolesAfter(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") TotalCount count) {
+        CursorPage<RoleResponse> roles = roleService.getRolesAfter(cursor, size, count);
+        return ResponseEntity.ok(roles);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get role by ID", description = "Admin retrieves a specific role by its ID")
@@ -34,6 +34,19 @@ public class UserController {
         return ResponseEntity.ok(userDto);
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search users",
+            description = "Finds users whose username, email, first or last name starts with or closely matches the "
+                    + "query (at least 3 characters), in username order after an opaque cursor (Admin only)")
+    public ResponseEntity<CursorPage<UserDto>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserDto> users = userService.searchUsers(q, cursor, size);
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get user by ID", description = "Returns user by their ID (Admin only)")
@@ -50,6 +63,19 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get users by cursor",
+            description = "Returns users in username order after an opaque cursor, starting with an empty cursor; "
+                    + "the total is left out unless count is estimate or exact (Admin only)")
+    public ResponseEntity<CursorPage<UserDto>> getUsersAfter(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") TotalCount count) {
+        CursorPage<UserDto> users = userService.getUsersAfter(cursor, size, count);
+        return ResponseEntity.ok(users);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete user", description = "Deletes a user by ID (Admin only)")
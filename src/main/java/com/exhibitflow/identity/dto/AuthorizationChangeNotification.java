@@ -0,0 +1,22 @@
+package com.exhibitflow.identity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorizationChangeNotification {
+
+    private Long sequence;
+    private String type;
+    private Set<String> usernames;
+    private String roleName;
+    private Instant occurredAt;
+}
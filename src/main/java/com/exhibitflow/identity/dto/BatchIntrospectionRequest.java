@@ -0,0 +1,19 @@
+package com.exhibitflow.identity.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchIntrospectionRequest {
+
+    @NotEmpty(message = "Tokens cannot be empty")
+    private List<String> tokens;
+}
@@ -0,0 +1,28 @@
+package com.exhibitflow.identity.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Roles to grant or revoke, and the users to change: either {@code userIds} or every current
+ * holder of {@code holdersOfRoleId}, but not both.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRoleChangeRequest {
+
+    @NotEmpty(message = "Role IDs cannot be empty")
+    private Set<UUID> roleIds;
+
+    private Set<UUID> userIds;
+
+    private UUID holdersOfRoleId;
+}
@@ -0,0 +1,16 @@
+package com.exhibitflow.identity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRoleChangeResponse {
+
+    /** Role assignments added or removed; assignments that already matched are not counted. */
+    private int assignmentsChanged;
+}
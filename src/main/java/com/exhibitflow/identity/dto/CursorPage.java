@@ -0,0 +1,47 @@
+package com.exhibitflow.identity.dto;
+
+import com.exhibitflow.identity.util.KeysetCursor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset-paginated listing. {@code nextCursor} is passed back as {@code cursor} to
+ * read the rows after this slice; {@code totalElements} is only filled in when a count was asked for.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+
+    /**
+     * Builds a slice from up to {@code size + 1} rows read in key order; the extra row only tells
+     * whether another slice follows and is not converted.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows,
+                                          int size,
+                                          Function<E, String> key,
+                                          Function<List<E>, List<T>> converter,
+                                          Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> slice = hasNext ? rows.subList(0, size) : rows;
+        return CursorPage.<T>builder()
+                .content(converter.apply(slice))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? KeysetCursor.encode(key.apply(slice.get(slice.size() - 1))) : null)
+                .totalElements(totalElements)
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.exhibitflow.identity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionDictionaryResponse {
+
+    private String version;
+    private List<String> permissions;
+}
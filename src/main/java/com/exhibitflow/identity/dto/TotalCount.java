@@ -0,0 +1,11 @@
+package com.exhibitflow.identity.dto;
+
+/**
+ * How a keyset-paginated listing reports its total: not at all, from the database's table
+ * statistics, or with an exact {@code COUNT(*)}.
+ */
+public enum TotalCount {
+    NONE,
+    ESTIMATE,
+    EXACT
+}
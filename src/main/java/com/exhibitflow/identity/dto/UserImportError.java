@@ -0,0 +1,17 @@
+package com.exhibitflow.identity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportError {
+
+    private int line;
+    private String username;
+    private String message;
+}
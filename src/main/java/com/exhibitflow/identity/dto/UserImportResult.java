@@ -0,0 +1,20 @@
+package com.exhibitflow.identity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResult {
+
+    private int received;
+    private int created;
+    private int failed;
+    private List<UserImportError> errors;
+}
@@ -0,0 +1,46 @@
+package com.exhibitflow.identity.event;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Published whenever a change could invalidate authorization data that was derived
+ * from the database and cached in memory (verified tokens, loaded principals).
+ * User-level changes carry the affected usernames, role-level changes the role name.
+ */
+@Value
+public class AuthorizationChangeEvent {
+
+    public enum Type {
+        USER_DISABLED,
+        USER_ENABLED,
+        USER_DELETED,
+        USER_ROLES_CHANGED,
+        ROLE_PERMISSIONS_CHANGED,
+        /** Roles were granted to or revoked from every holder of the named role in one bulk change. */
+        ROLE_MEMBERSHIP_CHANGED,
+        /** The user's refresh tokens were revoked, e.g. on logout. */
+        TOKENS_REVOKED
+    }
+
+    Type type;
+    Set<String> usernames;
+    String roleName;
+
+    public static AuthorizationChangeEvent forUser(Type type, String username) {
+        return new AuthorizationChangeEvent(type, Set.of(username), null);
+    }
+
+    public static AuthorizationChangeEvent forUsers(Type type, Set<String> usernames) {
+        return new AuthorizationChangeEvent(type, Set.copyOf(usernames), null);
+    }
+
+    public static AuthorizationChangeEvent forRole(Type type, String roleName) {
+        return new AuthorizationChangeEvent(type, Set.of(), roleName);
+    }
+
+    public boolean isRoleLevel() {
+        return roleName != null;
+    }
+}
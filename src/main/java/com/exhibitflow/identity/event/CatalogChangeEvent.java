@@ -0,0 +1,26 @@
+package com.exhibitflow.identity.event;
+
+import lombok.Value;
+
+/**
+ * Published when the role/permission catalog itself changes, as opposed to
+ * {@link AuthorizationChangeEvent} which describes the effect on users.
+ */
+@Value
+public class CatalogChangeEvent {
+
+    public enum Type {
+        PERMISSION_CREATED,
+        PERMISSION_DELETED,
+        ROLE_CREATED,
+        ROLE_DELETED,
+        ROLE_PERMISSIONS_CHANGED
+    }
+
+    Type type;
+    String name;
+
+    public boolean isRoleChange() {
+        return type == Type.ROLE_CREATED || type == Type.ROLE_DELETED || type == Type.ROLE_PERMISSIONS_CHANGED;
+    }
+}
@@ -0,0 +1,18 @@
+package com.exhibitflow.identity.exception;
+
+import java.time.Duration;
+
+/** Thrown when the password hashing queue is full; answered with 503 and {@code Retry-After}. */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingBusyException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
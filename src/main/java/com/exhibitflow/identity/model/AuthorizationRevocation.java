@@ -0,0 +1,41 @@
+package com.exhibitflow.identity.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A "not before" instant for a user or role, recorded with the change that caused it so that
+ * every instance authenticating statelessly rejects tokens issued earlier. Times are UTC.
+ */
+@Entity
+@Table(name = "authorization_revocations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthorizationRevocation {
+
+    public enum SubjectType {
+        USER,
+        ROLE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "subject_type", nullable = false, length = 8)
+    private SubjectType subjectType;
+
+    /** Username or role name. */
+    @Column(nullable = false, length = 100)
+    private String subject;
+
+    @Column(name = "not_before", nullable = false)
+    private LocalDateTime notBefore;
+}
@@ -0,0 +1,36 @@
+package com.exhibitflow.identity.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A published permission dictionary version: the ordered permission names that compact tokens
+ * carrying this version index into. Versions are content-addressed and never change.
+ */
+@Entity
+@Table(name = "permission_dictionary_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PermissionDictionaryVersion {
+
+    @Id
+    @Column(length = 12)
+    private String version;
+
+    /** Permission names in index order, one per line. */
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(nullable = false)
+    private String names;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,49 @@
+package com.exhibitflow.identity.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "signing_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SigningKey {
+
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+
+    /** Base64 X.509 SubjectPublicKeyInfo encoding. */
+    @Column(name = "public_key", nullable = false, length = 4096)
+    private String publicKey;
+
+    /** Base64 PKCS#8 encoding, wrapped with AES-GCM. */
+    @Column(name = "private_key", nullable = false, length = 4096)
+    private String privateKey;
+
+    @Column(name = "activates_at", nullable = false)
+    private LocalDateTime activatesAt;
+
+    @Column(name = "retires_at", nullable = false)
+    private LocalDateTime retiresAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public boolean isSigningAt(LocalDateTime instant) {
+        return !activatesAt.isAfter(instant) && retiresAt.isAfter(instant);
+    }
+}
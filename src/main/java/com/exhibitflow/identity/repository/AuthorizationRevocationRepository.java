@@ -0,0 +1,24 @@
+package com.exhibitflow.identity.repository;
+
+import com.exhibitflow.identity.model.AuthorizationRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AuthorizationRevocationRepository extends JpaRepository<AuthorizationRevocation, UUID> {
+
+    List<AuthorizationRevocation> findByNotBeforeGreaterThanEqual(LocalDateTime horizon);
+
+    /** Rows older than the access token lifetime can no longer match a live token. */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AuthorizationRevocation r WHERE r.notBefore < :horizon")
+    int deleteOlderThan(LocalDateTime horizon);
+}
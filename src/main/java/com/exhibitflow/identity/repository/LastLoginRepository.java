@@ -0,0 +1,42 @@
+package com.exhibitflow.identity.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes coalesced last-login times as one JDBC batch of narrow updates. Only {@code last_login}
+ * is set, so {@code updated_at} keeps meaning a change to the user, and a time older than the
+ * stored one never overwrites it, e.g. one flushed late by another instance.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LastLoginRepository {
+
+    private static final String UPDATE_LAST_LOGIN = """
+            UPDATE users SET last_login = :lastLogin
+            WHERE id = :id AND (last_login IS NULL OR last_login < :lastLogin)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        if (lastLogins.isEmpty()) {
+            return;
+        }
+        List<SqlParameterSource> batch = new ArrayList<>(lastLogins.size());
+        lastLogins.forEach((id, lastLogin) -> batch.add(new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("lastLogin", Timestamp.valueOf(lastLogin))));
+        jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch.toArray(SqlParameterSource[]::new));
+    }
+}
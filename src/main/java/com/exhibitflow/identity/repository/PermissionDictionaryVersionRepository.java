@@ -0,0 +1,9 @@
+package com.exhibitflow.identity.repository;
+
+import com.exhibitflow.identity.model.PermissionDictionaryVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PermissionDictionaryVersionRepository extends JpaRepository<PermissionDictionaryVersion, String> {
+}
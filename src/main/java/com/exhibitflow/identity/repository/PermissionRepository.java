@@ -1,9 +1,12 @@
 package com.exhibitflow.identity.repository;
 
 import com.exhibitflow.identity.model.Permission;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +16,10 @@ public interface PermissionRepository extends JpaRepository<Permission, UUID> {
     Optional<Permission> findByName(String name);
 
     boolean existsByName(String name);
+
+    List<Permission> findByNameGreaterThanOrderByNameAsc(String name, Limit limit);
+
+    /** Creation order keeps dictionary indexes stable when permissions are added. */
+    @Query("SELECT p.name FROM Permission p ORDER BY p.createdAt, p.name")
+    List<String> findAllNamesInCreationOrder();
 }
@@ -1,11 +1,18 @@
 package com.exhibitflow.identity.repository;
 
 import com.exhibitflow.identity.model.Role;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, UUID> {
@@ -13,4 +20,47 @@ public interface RoleRepository extends JpaRepository<Role, UUID> {
     Optional<Role> findByName(String name);
 
     boolean existsByName(String name);
+
+    List<Role> findByNameGreaterThanOrderByNameAsc(String name, Limit limit);
+
+    boolean existsByPermissionsId(UUID permissionId);
+
+    @Query("SELECT r.id FROM Role r")
+    List<UUID> findAllIds();
+
+    /**
+     * Permission and user counts for a page of roles in one statement. {@code SIZE} becomes a
+     * correlated {@code COUNT} on the join table, so no permission or user rows are loaded.
+     */
+    @Query("SELECT r.id AS roleId, SIZE(r.permissions) AS permissionCount, SIZE(r.users) AS userCount "
+            + "FROM Role r WHERE r.id IN :roleIds")
+    List<RoleMembershipCount> findMembershipCounts(Collection<UUID> roleIds);
+
+    default Map<UUID, RoleMembershipCount> findMembershipCountsByRoleId(Collection<UUID> roleIds) {
+        if (roleIds.isEmpty()) {
+            return Map.of();
+        }
+        return findMembershipCounts(roleIds).stream()
+                .collect(Collectors.toMap(RoleMembershipCount::getRoleId, Function.identity()));
+    }
+
+    /** One row per role and permission, with a null permission for roles that have none. */
+    @Query("SELECT r.id AS roleId, r.name AS roleName, p.name AS permissionName FROM Role r LEFT JOIN r.permissions p")
+    List<RolePermissionRow> findAllRolePermissionRows();
+
+    interface RolePermissionRow {
+        UUID getRoleId();
+
+        String getRoleName();
+
+        String getPermissionName();
+    }
+
+    interface RoleMembershipCount {
+        UUID getRoleId();
+
+        long getPermissionCount();
+
+        long getUserCount();
+    }
 }
@@ -0,0 +1,14 @@
+package com.exhibitflow.identity.repository;
+
+import com.exhibitflow.identity.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    List<SigningKey> findByExpiresAtAfterOrderByActivatesAtAsc(LocalDateTime instant);
+}
@@ -0,0 +1,76 @@
+package com.exhibitflow.identity.repository;
+
+import com.exhibitflow.identity.dto.TotalCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Row totals for the listing endpoints. An exact {@code COUNT(*)} scans the whole table, so
+ * {@link TotalCount#ESTIMATE} reads the planner's row estimate instead: {@code pg_class.reltuples}
+ * on PostgreSQL, kept current by autovacuum and {@code ANALYZE}, and
+ * {@code INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE} on H2. Databases without an estimate, and
+ * PostgreSQL tables that were never analyzed, fall back to an exact count.
+ * <p>
+ * Table names are the constants passed by the services, never request input.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class TableStatisticsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String databaseProduct;
+
+    public Long totalRows(String table, TotalCount mode) {
+        return switch (mode) {
+            case NONE -> null;
+            case ESTIMATE -> estimateRowCount(table).orElseGet(() -> countRows(table));
+            case EXACT -> countRows(table);
+        };
+    }
+
+    public long countRows(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    public OptionalLong estimateRowCount(String table) {
+        List<Long> estimates = switch (databaseProduct()) {
+            case "PostgreSQL" -> jdbcTemplate.queryForList(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+            case "H2" -> jdbcTemplate.queryForList(
+                    "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = UPPER(?)",
+                    Long.class, table);
+            default -> List.of();
+        };
+        // reltuples is -1 until the table has been vacuumed or analyzed
+        return estimates.isEmpty() || estimates.get(0) == null || estimates.get(0) < 0
+                ? OptionalLong.empty()
+                : OptionalLong.of(estimates.get(0));
+    }
+
+    private String databaseProduct() {
+        String product = databaseProduct;
+        if (product == null) {
+            try {
+                product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+            } catch (MetaDataAccessException | DataAccessException e) {
+                log.warn("Could not determine the database product, row counts will be exact", e);
+                product = "";
+            }
+            databaseProduct = product;
+        }
+        return product;
+    }
+}
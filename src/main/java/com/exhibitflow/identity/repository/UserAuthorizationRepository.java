@@ -0,0 +1,97 @@
+package com.exhibitflow.identity.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Loads what authentication needs about a user as one plain row per user: the password hash,
+ * account flags and the user's role IDs aggregated into an array, read straight into
+ * {@link AuthorizationRow} without hydrating entities. Role IDs are expanded to role and
+ * permission names in memory by {@code RolePermissionIndex}.
+ * <p>
+ * {@code ARRAY_AGG} in a correlated subquery works the same on PostgreSQL and H2; it yields NULL
+ * for a user without roles.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserAuthorizationRepository {
+
+    private static final String SELECT_AUTHORIZATION_ROWS = """
+            SELECT u.id, u.username, u.email, u.password, u.enabled, u.account_non_expired,
+                   u.account_non_locked, u.credentials_non_expired,
+                   (SELECT ARRAY_AGG(ur.role_id) FROM user_roles ur WHERE ur.user_id = u.id) AS role_ids
+            FROM users u
+            """;
+
+    private static final RowMapper<AuthorizationRow> ROW_MAPPER = UserAuthorizationRepository::mapRow;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Optional<AuthorizationRow> findByUsername(String username) {
+        List<AuthorizationRow> rows = jdbcTemplate.query(SELECT_AUTHORIZATION_ROWS + "WHERE u.username = :username",
+                Map.of("username", username), ROW_MAPPER);
+        return rows.stream().findFirst();
+    }
+
+    public List<AuthorizationRow> findAllByUsernameIn(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(SELECT_AUTHORIZATION_ROWS + "WHERE u.username IN (:usernames)",
+                Map.of("usernames", usernames), ROW_MAPPER);
+    }
+
+    private static AuthorizationRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new AuthorizationRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("password"),
+                rs.getBoolean("enabled"),
+                rs.getBoolean("account_non_expired"),
+                rs.getBoolean("account_non_locked"),
+                rs.getBoolean("credentials_non_expired"),
+                roleIds(rs.getArray("role_ids")));
+    }
+
+    private static Set<UUID> roleIds(Array array) throws SQLException {
+        if (array == null) {
+            return Set.of();
+        }
+        try {
+            Object[] elements = (Object[]) array.getArray();
+            Set<UUID> roleIds = new HashSet<>(elements.length * 2);
+            for (Object element : elements) {
+                // Drivers return uuid[] elements as UUID; accept their text form as well
+                roleIds.add(element instanceof UUID uuid ? uuid : UUID.fromString(element.toString()));
+            }
+            return roleIds;
+        } finally {
+            array.free();
+        }
+    }
+
+    public record AuthorizationRow(UUID id,
+                                   String username,
+                                   String email,
+                                   String password,
+                                   boolean enabled,
+                                   boolean accountNonExpired,
+                                   boolean accountNonLocked,
+                                   boolean credentialsNonExpired,
+                                   Set<UUID> roleIds) {
+    }
+}
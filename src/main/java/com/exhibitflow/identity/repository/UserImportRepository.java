@@ -0,0 +1,96 @@
+package com.exhibitflow.identity.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based reads and JDBC batch writes for bulk user import. A chunk of rows is checked for
+ * taken usernames and emails with one {@code IN} query each and written with one batched insert
+ * into {@code users} and one into {@code user_roles}, instead of a lookup, a persist and a flush
+ * per user. On PostgreSQL, {@code reWriteBatchedInserts} turns each batch into multi-row inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserImportRepository {
+
+    private static final String INSERT_USER = """
+            INSERT INTO users (id, username, email, password, first_name, last_name, enabled,
+                               account_non_expired, account_non_locked, credentials_non_expired,
+                               created_at, updated_at)
+            VALUES (:id, :username, :email, :password, :firstName, :lastName, :enabled,
+                    TRUE, TRUE, TRUE, :createdAt, :createdAt)
+            """;
+
+    private static final String INSERT_USER_ROLE =
+            "INSERT INTO user_roles (user_id, role_id) VALUES (:userId, :roleId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT username FROM users WHERE username IN (:usernames)",
+                Map.of("usernames", usernames), String.class));
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT email FROM users WHERE email IN (:emails)",
+                Map.of("emails", emails), String.class));
+    }
+
+    public void insertAll(List<ImportedUser> users) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map<String, Object>> userRows = new ArrayList<>(users.size());
+        List<Map<String, Object>> roleRows = new ArrayList<>();
+        for (ImportedUser user : users) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", user.id());
+            row.put("username", user.username());
+            row.put("email", user.email());
+            row.put("password", user.passwordHash());
+            row.put("firstName", user.firstName());
+            row.put("lastName", user.lastName());
+            row.put("enabled", user.enabled());
+            row.put("createdAt", now);
+            userRows.add(row);
+            for (UUID roleId : user.roleIds()) {
+                roleRows.add(Map.of("userId", user.id(), "roleId", roleId));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, toParameterArray(userRows));
+        if (!roleRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, toParameterArray(roleRows));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object>[] toParameterArray(List<Map<String, Object>> rows) {
+        return rows.toArray(new Map[0]);
+    }
+
+    public record ImportedUser(UUID id,
+                               String username,
+                               String email,
+                               String passwordHash,
+                               String firstName,
+                               String lastName,
+                               boolean enabled,
+                               Set<UUID> roleIds) {
+    }
+}
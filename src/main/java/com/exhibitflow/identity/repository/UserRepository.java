@@ -1,10 +1,13 @@
 package com.exhibitflow.identity.repository;
 
 import com.exhibitflow.identity.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,10 +18,24 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
 
+    /** Keyset slice of the user directory, read in username order from the unique index. */
+    List<User> findByUsernameGreaterThanOrderByUsernameAsc(String username, Limit limit);
+
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions WHERE u.username = :username")
     Optional<User> findByUsernameWithRolesAndPermissions(String username);
 
+    @Query("SELECT u.username FROM User u WHERE u.enabled = false")
+    List<String> findDisabledUsernames();
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    boolean existsByRolesId(UUID roleId);
+
+    /** Replaces a password hash with its rehashed form; not a profile change, so updated_at stays. */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(String username, String password);
+
 }
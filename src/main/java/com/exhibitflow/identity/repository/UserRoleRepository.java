@@ -0,0 +1,93 @@
+package com.exhibitflow.identity.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-based changes to {@code user_roles} for bulk grants and revocations. Each call is one
+ * {@code INSERT ... SELECT} or {@code DELETE} per chunk of user IDs, or a single statement when the
+ * users are selected as the holders of a role, so no user or role entities are loaded. Explicit ID
+ * lists are split into chunks to stay under PostgreSQL's bind parameter limit.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserRoleRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String GRANT_TO_USERS = """
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT u.id, r.id FROM users u CROSS JOIN roles r
+            WHERE u.id IN (:userIds) AND r.id IN (:roleIds)
+              AND NOT EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = u.id AND ur.role_id = r.id)
+            """;
+
+    private static final String GRANT_TO_HOLDERS = """
+            INSERT INTO user_roles (user_id, role_id)
+            SELECT h.user_id, r.id FROM user_roles h CROSS JOIN roles r
+            WHERE h.role_id = :holdersOf AND r.id IN (:roleIds)
+              AND NOT EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = h.user_id AND ur.role_id = r.id)
+            """;
+
+    private static final String REVOKE_FROM_USERS =
+            "DELETE FROM user_roles WHERE user_id IN (:userIds) AND role_id IN (:roleIds)";
+
+    private static final String REVOKE_FROM_HOLDERS = """
+            DELETE FROM user_roles
+            WHERE role_id IN (:roleIds)
+              AND user_id IN (SELECT h.user_id FROM user_roles h WHERE h.role_id = :holdersOf)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public int grantToUsers(Collection<UUID> userIds, Collection<UUID> roleIds) {
+        return updateInChunks(GRANT_TO_USERS, userIds, roleIds);
+    }
+
+    public int grantToHolders(UUID holdersOf, Collection<UUID> roleIds) {
+        return jdbcTemplate.update(GRANT_TO_HOLDERS, Map.of("holdersOf", holdersOf, "roleIds", roleIds));
+    }
+
+    public int revokeFromUsers(Collection<UUID> userIds, Collection<UUID> roleIds) {
+        return updateInChunks(REVOKE_FROM_USERS, userIds, roleIds);
+    }
+
+    public int revokeFromHolders(UUID holdersOf, Collection<UUID> roleIds) {
+        return jdbcTemplate.update(REVOKE_FROM_HOLDERS, Map.of("holdersOf", holdersOf, "roleIds", roleIds));
+    }
+
+    public Set<String> findUsernames(Collection<UUID> userIds) {
+        Set<String> usernames = new HashSet<>(userIds.size() * 2);
+        for (List<UUID> chunk : chunks(userIds)) {
+            usernames.addAll(jdbcTemplate.queryForList("SELECT username FROM users WHERE id IN (:userIds)",
+                    Map.of("userIds", chunk), String.class));
+        }
+        return usernames;
+    }
+
+    private int updateInChunks(String sql, Collection<UUID> userIds, Collection<UUID> roleIds) {
+        int changed = 0;
+        for (List<UUID> chunk : chunks(userIds)) {
+            changed += jdbcTemplate.update(sql, Map.of("userIds", chunk, "roleIds", roleIds));
+        }
+        return changed;
+    }
+
+    private static List<List<UUID>> chunks(Collection<UUID> ids) {
+        List<UUID> all = new ArrayList<>(ids);
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,129 @@
+package com.exhibitflow.identity.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Finds users for the support desk search with two bounded queries, so neither has to collect
+ * every match of a short, common query before its {@code LIMIT} applies:
+ * <ul>
+ *   <li>Every user whose username starts with the query. This walks the V7
+ *   {@code lower(username) text_pattern_ops} index in its own order from the cursor and stops
+ *   after one slice.</li>
+ *   <li>The {@code user-search.fuzzy-limit} users most similar to the query across username,
+ *   email, first and last name. On PostgreSQL with {@code user-search.trigram} enabled this is a
+ *   nearest-neighbour scan of the V12 GiST trigram index by word similarity ({@code <<->}), which
+ *   tolerates typos and matches inside words. Without trigrams it falls back to a substring
+ *   match, which is only meant for development databases.</li>
+ * </ul>
+ * Both are merged in {@code lower(username)} order, then username for names differing only in
+ * case, and keyset paged after the last username of the previous slice like the other listings.
+ */
+@Repository
+public class UserSearchRepository {
+
+    private static final String SEARCH_TEXT =
+            "lower(u.username || ' ' || u.email || ' ' || coalesce(u.first_name, '') || ' ' || coalesce(u.last_name, ''))";
+
+    // ~>=~, ~>~ and ~<~ are the text_pattern_ops operators, so the bounds and the order come from
+    // the index; the tie-break on username only sorts names that differ in case
+    private static final String PREFIX_PATTERN_OPS = """
+            SELECT u.id, u.username FROM users u
+            WHERE lower(u.username) LIKE :prefix
+              AND lower(u.username) ~>=~ :afterKey
+              AND (lower(u.username) ~>~ :afterKey OR u.username > :after)
+            ORDER BY lower(u.username) USING ~<~, u.username
+            LIMIT :limit
+            """;
+
+    private static final String PREFIX_PORTABLE = """
+            SELECT u.id, u.username FROM users u
+            WHERE lower(u.username) LIKE :prefix
+              AND lower(u.username) >= :afterKey
+              AND (lower(u.username) > :afterKey OR u.username > :after)
+            ORDER BY lower(u.username), u.username
+            LIMIT :limit
+            """;
+
+    private static final String FUZZY_TRIGRAM = """
+            SELECT u.id, u.username FROM users u
+            WHERE :query <%% %1$s
+            ORDER BY :query <<-> %1$s, u.username
+            LIMIT :fuzzyLimit
+            """.formatted(SEARCH_TEXT);
+
+    private static final String FUZZY_SUBSTRING = """
+            SELECT u.id, u.username FROM users u
+            WHERE %s LIKE :contains
+            ORDER BY lower(u.username), u.username
+            LIMIT :fuzzyLimit
+            """.formatted(SEARCH_TEXT);
+
+    private static final Comparator<Match> SEARCH_ORDER =
+            Comparator.comparing(Match::sortKey).thenComparing(Match::username);
+
+    private static final RowMapper<Match> MATCH_MAPPER = (rs, rowNum) ->
+            new Match(rs.getObject("id", UUID.class), rs.getString("username"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String prefixSql;
+    private final String fuzzySql;
+    private final int fuzzyLimit;
+
+    public UserSearchRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                @Value("${user-search.trigram:false}") boolean trigram,
+                                @Value("${user-search.fuzzy-limit:50}") int fuzzyLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefixSql = trigram ? PREFIX_PATTERN_OPS : PREFIX_PORTABLE;
+        this.fuzzySql = trigram ? FUZZY_TRIGRAM : FUZZY_SUBSTRING;
+        this.fuzzyLimit = fuzzyLimit;
+    }
+
+    /**
+     * @param query lower-cased search text
+     * @param after username of the last row already returned, or empty for the first slice
+     */
+    public List<UUID> search(String query, String after, int limit) {
+        String escaped = escapeLike(query);
+        Map<String, Object> params = Map.of(
+                "query", query,
+                "prefix", escaped + "%",
+                "contains", "%" + escaped + "%",
+                "after", after,
+                "afterKey", after.toLowerCase(Locale.ROOT),
+                "limit", limit,
+                "fuzzyLimit", fuzzyLimit);
+        List<Match> prefixMatches = jdbcTemplate.query(prefixSql, params, MATCH_MAPPER);
+        // The same best matches on every slice, so pages neither repeat nor skip them
+        List<Match> fuzzyMatches = jdbcTemplate.query(fuzzySql, params, MATCH_MAPPER);
+
+        Match cursor = new Match(null, after);
+        Map<UUID, Match> merged = new LinkedHashMap<>();
+        Stream.concat(prefixMatches.stream(),
+                        fuzzyMatches.stream().filter(match -> SEARCH_ORDER.compare(match, cursor) > 0))
+                .sorted(SEARCH_ORDER)
+                .forEach(match -> merged.putIfAbsent(match.id(), match));
+        return merged.keySet().stream().limit(limit).toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private record Match(UUID id, String username) {
+
+        String sortKey() {
+            return username.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bounded cache of authenticated principals keyed by the digest of the bearer token they
+ * were resolved from. An entry never outlives the token's own expiry, so a cache hit is
+ * always as good as a fresh signature check plus database load. {@code max-staleness} bounds
+ * how long an entry can be served if an {@link AuthorizationChangeEvent} is missed, e.g. after a
+ * change made on another instance or directly in the database.
+ */
+@Component
+@Slf4j
+public class AccessTokenCache {
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+
+    public AccessTokenCache(@Value("${jwt.access-token-cache.enabled:true}") boolean enabled,
+                            @Value("${jwt.access-token-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${jwt.access-token-cache.max-staleness:PT1M}") Duration maxStaleness,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry(maxStaleness))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.access-tokens");
+    }
+
+    public UserDetails get(String tokenDigest) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(tokenDigest);
+        return entry != null ? entry.principal() : null;
+    }
+
+    /**
+     * Caches the principal until {@code expiresAt}, or for at most {@code max-staleness}, and
+     * returns the copy that was stored, which carries the same authorities but no password hash.
+     */
+    public UserDetails put(String tokenDigest, UserDetails userDetails, Instant expiresAt) {
+        UserDetails principal = userDetails instanceof AuthorizedUser authorizedUser
+                ? authorizedUser.withPassword("")
+                : User.withUserDetails(userDetails).password("").build();
+        if (enabled && expiresAt != null) {
+            cache.put(tokenDigest, new Entry(principal, expiresAt));
+        }
+        return principal;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (event.isRoleLevel()) {
+            // Role catalog changes are rare admin operations; start over rather than track holders
+            cache.invalidateAll();
+        } else {
+            cache.asMap().values().removeIf(entry -> event.getUsernames().contains(entry.principal().getUsername()));
+        }
+        log.debug("Evicted cached access tokens after {}", event.getType());
+    }
+
+    private record Entry(UserDetails principal, Instant expiresAt) {
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Entry> {
+
+        private final long maxStalenessNanos;
+
+        private UntilTokenExpiry(Duration maxStaleness) {
+            this.maxStalenessNanos = maxStaleness.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            long untilExpiry = Math.max(0, Duration.between(Instant.now(), entry.expiresAt()).toNanos());
+            return Math.min(untilExpiry, maxStalenessNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
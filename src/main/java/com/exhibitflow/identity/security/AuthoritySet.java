@@ -0,0 +1,21 @@
+package com.exhibitflow.identity.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Canonical roles, permissions and granted authorities for one distinct combination of roles.
+ * {@link RolePermissionIndex} interns one instance per combination, so every principal, token and
+ * introspection response for users holding the same roles shares it instead of building its own.
+ * All collections are immutable.
+ *
+ * @param roles       role names without the {@code ROLE_} prefix
+ * @param permissions distinct permission names granted through any of the roles
+ * @param authorities {@code ROLE_}-prefixed roles followed by the permissions
+ */
+public record AuthoritySet(List<String> roles, List<String> permissions, Set<GrantedAuthority> authorities) {
+
+    static final AuthoritySet NONE = new AuthoritySet(List.of(), List.of(), Set.of());
+}
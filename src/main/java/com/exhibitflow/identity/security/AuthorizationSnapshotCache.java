@@ -0,0 +1,119 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of loaded principals keyed by username, used by {@code DaoAuthenticationProvider}
+ * as its {@link UserCache} and by bearer token authentication. Entries are evicted precisely from
+ * {@link AuthorizationChangeEvent}s: user-level changes evict those users, a role-level change
+ * evicts only the users holding the role. {@code max-staleness} bounds how long an entry can be
+ * served if an event is missed, e.g. after a change made on another instance or directly in the
+ * database; it is kept to tens of seconds because a disabled user can log in until then.
+ * <p>
+ * Principals are only cached by {@link #put}, and only if no eviction happened since the caller
+ * read {@link #generation()} before loading the user, so a snapshot read just before a change
+ * cannot be put back after the eviction it raced with.
+ * <p>
+ * Callers get a copy of the cached principal, because {@code ProviderManager} erases credentials
+ * on the principal it returns. Copies share the principal's interned {@link AuthoritySet}.
+ */
+@Component
+@Slf4j
+public class AuthorizationSnapshotCache implements UserCache {
+
+    private final boolean enabled;
+    private final Cache<String, Snapshot> cache;
+    private final Timer servedAge;
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthorizationSnapshotCache(@Value("${security.user-cache.enabled:true}") boolean enabled,
+                                      @Value("${security.user-cache.maximum-size:50000}") long maximumSize,
+                                      @Value("${security.user-cache.max-staleness:PT30S}") Duration maxStaleness,
+                                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "security.user-cache");
+        this.servedAge = Timer.builder("security.user-cache.served-age")
+                .description("Age of cached principals when served; the window in which a missed change could be visible")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        if (!enabled) {
+            return null;
+        }
+        Snapshot snapshot = cache.getIfPresent(username);
+        if (snapshot == null) {
+            return null;
+        }
+        servedAge.record(Duration.ofNanos(System.nanoTime() - snapshot.loadedAt()));
+        return snapshot.user().copy();
+    }
+
+    /**
+     * Ignored: {@code DaoAuthenticationProvider} calls this with a principal it loaded through
+     * {@link CustomUserDetailsService}, which already cached it if no eviction intervened.
+     */
+    @Override
+    public void putUserInCache(UserDetails user) {
+    }
+
+    /** Read before loading a user, and pass to {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Caches a freshly loaded principal unless an eviction happened since {@code generation} was read. */
+    public void put(AuthorizedUser user, long generation) {
+        // Not once its credentials were erased, since such a principal cannot serve password checks
+        if (!enabled || user.getPassword() == null || generation != this.generation.get()) {
+            return;
+        }
+        Snapshot snapshot = new Snapshot(user.copy(), System.nanoTime());
+        cache.put(user.getUsername(), snapshot);
+        if (generation != this.generation.get()) {
+            // An eviction started after the check above and may have run before the put
+            cache.asMap().remove(user.getUsername(), snapshot);
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        generation.incrementAndGet();
+        cache.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        generation.incrementAndGet();
+        if (event.isRoleLevel()) {
+            cache.asMap().values().removeIf(snapshot ->
+                    snapshot.user().getAuthoritySet().roles().contains(event.getRoleName()));
+        } else {
+            cache.invalidateAll(event.getUsernames());
+        }
+        log.debug("Evicted cached principals after {}", event.getType());
+    }
+
+    private record Snapshot(AuthorizedUser user, long loadedAt) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.exhibitflow.identity.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Principal loaded by {@link CustomUserDetailsService}. Unlike
+ * {@link org.springframework.security.core.userdetails.User}, which copies its authorities into a
+ * sorted set per instance, it references the interned {@link AuthoritySet} of the user's role
+ * combination, so a cached principal costs little more than its username and password hash.
+ * <p>
+ * It also keeps the user's ID and email, so tokens can be minted from the authenticated principal
+ * without reading the user again.
+ * <p>
+ * Equality is by username, as for {@code User}.
+ */
+public final class AuthorizedUser implements UserDetails, CredentialsContainer {
+
+    private final UUID id;
+    private final String username;
+    private final String email;
+    private String password;
+    private final boolean enabled;
+    private final boolean accountNonExpired;
+    private final boolean accountNonLocked;
+    private final boolean credentialsNonExpired;
+    private final AuthoritySet authoritySet;
+
+    public AuthorizedUser(UserAuthorization user) {
+        this(user.id(), user.username(), user.email(), user.password(), user.enabled(), user.accountNonExpired(),
+                user.accountNonLocked(), user.credentialsNonExpired(), user.authorities());
+    }
+
+    private AuthorizedUser(UUID id, String username, String email, String password, boolean enabled,
+                           boolean accountNonExpired, boolean accountNonLocked, boolean credentialsNonExpired,
+                           AuthoritySet authoritySet) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.enabled = enabled;
+        this.accountNonExpired = accountNonExpired;
+        this.accountNonLocked = accountNonLocked;
+        this.credentialsNonExpired = credentialsNonExpired;
+        this.authoritySet = authoritySet;
+    }
+
+    /** A separate instance sharing the authorities, so erasing its credentials leaves this one intact. */
+    public AuthorizedUser copy() {
+        return withPassword(password);
+    }
+
+    public AuthorizedUser withPassword(String newPassword) {
+        return new AuthorizedUser(id, username, email, newPassword, enabled, accountNonExpired, accountNonLocked,
+                credentialsNonExpired, authoritySet);
+    }
+
+    /** The authorization this principal was built from, as token issuance needs it. */
+    public UserAuthorization toAuthorization() {
+        return new UserAuthorization(id, username, email, password, enabled, accountNonExpired, accountNonLocked,
+                credentialsNonExpired, authoritySet);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public AuthoritySet getAuthoritySet() {
+        return authoritySet;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authoritySet.authorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return accountNonExpired;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return accountNonLocked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credentialsNonExpired;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof AuthorizedUser user && username.equals(user.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [Username=" + username + ", Enabled=" + enabled
+                + ", Granted Authorities=" + authoritySet.authorities() + "]";
+    }
+}
@@ -0,0 +1,38 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.exception.PasswordHashingBusyException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * {@link DaoAuthenticationProvider} that treats rehashing an outdated password as optional. The
+ * rehash runs after the password has matched, so when the hashing pool refuses it with
+ * {@link PasswordHashingBusyException} the login still succeeds with the old hash, which is
+ * upgraded on a later login instead of turning a correct password into a 503.
+ */
+@Slf4j
+public class BestEffortRehashAuthenticationProvider extends DaoAuthenticationProvider {
+
+    public BestEffortRehashAuthenticationProvider(UserDetailsService userDetailsService) {
+        super(userDetailsService);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (PasswordHashingBusyException e) {
+            log.debug("Password hashing is saturated, deferring the rehash for {}", user.getUsername());
+            // What the base provider returns once the upgrade is done; no authorities mapper is set
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), user.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+    }
+}
@@ -1,56 +1,73 @@
 package com.exhibitflow.identity.security;
 
-import com.exhibitflow.identity.model.Permission;
-import com.exhibitflow.identity.model.Role;
-import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.UserAuthorizationRepository;
 import com.exhibitflow.identity.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private final UserAuthorizationRepository userAuthorizationRepository;
+    private final AuthorizationSnapshotCache authorizationSnapshotCache;
+    private final RolePermissionIndex rolePermissionIndex;
     private final UserRepository userRepository;
 
+    /**
+     * Always reads from the database: {@code DaoAuthenticationProvider} consults the cache itself and
+     * calls this again when a cached password did not match.
+     */
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsernameWithRolesAndPermissions(username)
+        return load(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    }
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(getAuthorities(user))
-                .accountExpired(!user.getAccountNonExpired())
-                .accountLocked(!user.getAccountNonLocked())
-                .credentialsExpired(!user.getCredentialsNonExpired())
-                .disabled(!user.getEnabled())
-                .build();
+    /**
+     * Cached variant of {@link #loadUserByUsername} for bearer token authentication and refresh;
+     * reports a missing user as empty rather than by exception.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserDetails> findUserByUsername(String username) {
+        UserDetails cached = authorizationSnapshotCache.getUserFromCache(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(username);
     }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        
-        for (Role role : user.getRoles()) {
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
-            
-            for (Permission permission : role.getPermissions()) {
-                authorities.add(new SimpleGrantedAuthority(permission.getName()));
-            }
+    /**
+     * Stores a password rehashed by {@code DaoAuthenticationProvider} after a successful login and
+     * evicts the cached principal, which would otherwise keep offering the old hash for upgrade.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        authorizationSnapshotCache.removeUserFromCache(user.getUsername());
+        if (!(user instanceof AuthorizedUser authorizedUser)) {
+            return User.withUserDetails(user).password(newPassword).build();
         }
-        
-        return authorities;
+        return authorizedUser.withPassword(newPassword);
+    }
+
+    private Optional<UserDetails> load(String username) {
+        // Read first, so a snapshot loaded before a concurrent eviction is not cached
+        long generation = authorizationSnapshotCache.generation();
+        Optional<AuthorizedUser> user = userAuthorizationRepository.findByUsername(username)
+                .map(rolePermissionIndex::expand)
+                .map(AuthorizedUser::new);
+        user.ifPresent(authorizedUser -> authorizationSnapshotCache.put(authorizedUser, generation));
+        return user.map(UserDetails.class::cast);
     }
 }
@@ -0,0 +1,133 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.dto.TokenIntrospectionResponse;
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of introspection results keyed by token digest. Active results live until the
+ * token expires or for at most {@code max-staleness}, which bounds how long a change missed by
+ * this instance, e.g. one made on another instance or directly in the database, is answered from
+ * the cache. Inactive results (garbage, expired, unknown or disabled user) live for a short
+ * negative TTL so that repeated bad tokens are answered without touching the database.
+ * <p>
+ * Every eviction advances a generation. A result is only stored if no eviction happened since
+ * the caller read {@link #generation()} before loading the user, so a result read just before a
+ * change cannot outlive the eviction it raced with.
+ */
+@Component
+@Slf4j
+public class IntrospectionCache {
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public IntrospectionCache(@Value("${jwt.introspection.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.introspection.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${jwt.introspection.cache.negative-ttl:PT10S}") Duration negativeTtl,
+                              @Value("${jwt.introspection.cache.max-staleness:PT1M}") Duration maxStaleness,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilExpiry(negativeTtl, maxStaleness))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.introspection");
+    }
+
+    public TokenIntrospectionResponse get(String tokenDigest) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(tokenDigest);
+        return entry != null ? entry.response() : null;
+    }
+
+    /** Read before loading the user behind a result, and pass to {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches an introspection result unless an eviction happened since {@code generation} was
+     * read. {@code username} is the verified subject, or null when the token could not be
+     * verified; it lets a later change to that user evict inactive results too.
+     */
+    public void put(String tokenDigest, String username, TokenIntrospectionResponse response, long generation) {
+        if (!enabled || generation != this.generation.get()) {
+            return;
+        }
+        Entry entry = new Entry(username, response);
+        cache.put(tokenDigest, entry);
+        if (generation != this.generation.get()) {
+            // An eviction started after the check above and may have run before the put
+            cache.asMap().remove(tokenDigest, entry);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        generation.incrementAndGet();
+        if (event.isRoleLevel()) {
+            // Only results that list the role carry its permissions
+            cache.asMap().values().removeIf(entry -> entry.hasRole(event.getRoleName()));
+        } else {
+            cache.asMap().values().removeIf(entry -> event.getUsernames().contains(entry.username()));
+        }
+        log.debug("Evicted cached introspection results after {}", event.getType());
+    }
+
+    private record Entry(String username, TokenIntrospectionResponse response) {
+
+        boolean hasRole(String roleName) {
+            List<String> roles = response.getRoles();
+            return roles != null && roles.contains(roleName);
+        }
+    }
+
+    private static final class UntilExpiry implements Expiry<String, Entry> {
+
+        private final long negativeTtlNanos;
+        private final long maxStalenessNanos;
+
+        private UntilExpiry(Duration negativeTtl, Duration maxStaleness) {
+            this.negativeTtlNanos = negativeTtl.toNanos();
+            this.maxStalenessNanos = maxStaleness.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            TokenIntrospectionResponse response = entry.response();
+            if (!Boolean.TRUE.equals(response.getActive()) || response.getExp() == null) {
+                return negativeTtlNanos;
+            }
+            long untilExpiry = Math.max(0, Duration.between(Instant.now(), Instant.ofEpochSecond(response.getExp())).toNanos());
+            return Math.min(untilExpiry, maxStalenessNanos);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -6,8 +6,11 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -22,6 +25,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final AccessTokenCache accessTokenCache;
+    private final RevocationRegistry revocationRegistry;
+    private final TokenCheckMetrics tokenCheckMetrics;
+
+    /**
+     * When enabled the principal is built from the verified token's authorities instead of
+     * being loaded from the database; {@link RevocationRegistry} covers disabled users and
+     * authority changes made after the token was issued.
+     */
+    @Value("${jwt.stateless-authentication:false}")
+    private boolean statelessAuthentication;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -30,11 +44,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && !jwtUtil.isTokenExpired(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (StringUtils.hasText(jwt)) {
+                UserDetails userDetails = resolvePrincipal(jwt);
 
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authentication = 
                             new UsernamePasswordAuthenticationToken(
                                     userDetails, 
@@ -46,12 +59,69 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             }
         } catch (Exception ex) {
-            logger.error("Could not set user authentication in security context", ex);
+            // Counted like a rejection; a failing dependency would otherwise log a stack trace per request
+            tokenCheckMetrics.record(TokenStatus.ERROR);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Could not set user authentication in security context", ex);
+            } else {
+                logger.warn("Could not set user authentication in security context: " + ex);
+            }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolvePrincipal(String jwt) {
+        String tokenDigest = TokenDigest.of(jwt);
+        UserDetails cached = accessTokenCache.get(tokenDigest);
+        if (cached != null) {
+            return cached;
+        }
+
+        TokenCheck check = jwtUtil.check(jwt);
+        if (!check.isValid()) {
+            return reject(check.getStatus());
+        }
+
+        VerifiedToken token = check.getToken();
+        UserDetails userDetails;
+        if (statelessAuthentication) {
+            if (revocationRegistry.isRevoked(token)) {
+                return reject(TokenStatus.REVOKED);
+            }
+            userDetails = principalFromClaims(token);
+        } else {
+            userDetails = userDetailsService.findUserByUsername(token.getSubject()).orElse(null);
+            if (userDetails == null || !token.getSubject().equals(userDetails.getUsername())) {
+                return reject(TokenStatus.UNKNOWN_USER);
+            }
+            if (!userDetails.isEnabled()) {
+                return reject(TokenStatus.DISABLED);
+            }
+        }
+
+        tokenCheckMetrics.record(TokenStatus.VALID);
+        return accessTokenCache.put(tokenDigest, userDetails, token.getExpiresAt());
+    }
+
+    private UserDetails reject(TokenStatus status) {
+        // Counted rather than logged: bad tokens arrive in floods
+        tokenCheckMetrics.record(status);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Rejected bearer token: " + status);
+        }
+        return null;
+    }
+
+    private UserDetails principalFromClaims(VerifiedToken token) {
+        return User.withUsername(token.getSubject())
+                .password("")
+                .authorities(token.getAuthorities().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList())
+                .build();
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,373 @@
+package com.exhibitflow.identity.security;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Arrays;
+
+/**
+ * Writes compact JWS tokens straight into per-thread byte buffers: the claims are streamed as JSON
+ * by the caller, the encoded header is computed once per key, and {@link Mac}/{@link Signature}
+ * instances are initialised once per thread and key. The output is a standard JWS that jjwt (and
+ * any other JOSE library) verifies exactly like a token produced by {@code Jwts.builder()}.
+ */
+public class JwtMinter {
+
+    private static final byte[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int ES256_COORDINATE_LENGTH = 32;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Key material plus the JOSE {@code alg} and optional {@code kid}, with the encoded header
+     * computed up front. Create one per key and reuse it rather than one per token.
+     */
+    public static final class SigningKey {
+
+        private final String kid;
+        private final String algorithm;
+        private final Key key;
+        private final byte[] encodedHeader;
+
+        private SigningKey(String kid, String algorithm, Key key) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.key = key;
+            this.encodedHeader = encodeHeader(kid, algorithm);
+        }
+
+        /**
+         * Same algorithm choice as {@code JwtBuilder.signWith(SecretKey)}: the JCA name of a key from
+         * {@code Keys.hmacShaKeyFor} already reflects its length.
+         */
+        public static SigningKey hmac(SecretKey key) {
+            String algorithm = switch (key.getAlgorithm()) {
+                case "HmacSHA256" -> "HS256";
+                case "HmacSHA384" -> "HS384";
+                case "HmacSHA512" -> "HS512";
+                default -> throw new IllegalArgumentException("Unsupported HMAC key: " + key.getAlgorithm());
+            };
+            return new SigningKey(null, algorithm, key);
+        }
+
+        public static SigningKey asymmetric(String kid, String algorithm, PrivateKey key) {
+            return new SigningKey(kid, algorithm, key);
+        }
+
+        public String kid() {
+            return kid;
+        }
+
+        public String algorithm() {
+            return algorithm;
+        }
+
+        Key key() {
+            return key;
+        }
+    }
+
+    @FunctionalInterface
+    public interface ClaimsWriter {
+        void writeTo(Claims claims);
+    }
+
+    public String mint(SigningKey signingKey, ClaimsWriter claimsWriter) {
+        Scratch scratch = this.scratch.get();
+        Claims claims = scratch.claims;
+        claims.reset();
+        claimsWriter.writeTo(claims);
+        claims.finish();
+
+        Buffer token = scratch.token;
+        token.length = 0;
+        token.append(signingKey.encodedHeader);
+        token.append((byte) '.');
+        token.appendBase64Url(claims.buffer.bytes, 0, claims.buffer.length);
+        int signingInputLength = token.length;
+
+        try {
+            byte[] signature = sign(scratch, signingKey, token.bytes, signingInputLength);
+            token.append((byte) '.');
+            token.appendBase64Url(signature, 0, scratch.signatureLength);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token with " + signingKey.algorithm(), e);
+        }
+        return new String(token.bytes, 0, token.length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] encodeHeader(String kid, String algorithm) {
+        Claims header = new Claims();
+        header.reset();
+        header.string("kid", kid);
+        header.string("alg", algorithm);
+        header.finish();
+        Buffer encoded = new Buffer(64);
+        encoded.appendBase64Url(header.buffer.bytes, 0, header.buffer.length);
+        return Arrays.copyOf(encoded.bytes, encoded.length);
+    }
+
+    private static byte[] sign(Scratch scratch, SigningKey signingKey, byte[] input, int length)
+            throws GeneralSecurityException {
+        Key key = signingKey.key();
+        if (key instanceof SecretKey) {
+            if (scratch.macKey != key) {
+                scratch.mac = Mac.getInstance(key.getAlgorithm());
+                scratch.mac.init(key);
+                scratch.macKey = key;
+                scratch.macOutput = new byte[scratch.mac.getMacLength()];
+            }
+            scratch.mac.update(input, 0, length);
+            scratch.mac.doFinal(scratch.macOutput, 0);
+            scratch.signatureLength = scratch.macOutput.length;
+            return scratch.macOutput;
+        }
+
+        if (scratch.signatureKey != key) {
+            scratch.signature = Signature.getInstance(jcaSignatureAlgorithm(signingKey.algorithm()));
+            scratch.signature.initSign((PrivateKey) key);
+            scratch.signatureKey = key;
+        }
+        scratch.signature.update(input, 0, length);
+        byte[] signature = scratch.signature.sign();
+        if ("ES256".equals(signingKey.algorithm())) {
+            signature = derToConcatenated(signature, ES256_COORDINATE_LENGTH);
+        }
+        scratch.signatureLength = signature.length;
+        return signature;
+    }
+
+    private static String jcaSignatureAlgorithm(String algorithm) {
+        return switch (algorithm) {
+            case "RS256" -> "SHA256withRSA";
+            case "ES256" -> "SHA256withECDSA";
+            case "EdDSA" -> "EdDSA";
+            default -> throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+        };
+    }
+
+    /**
+     * JCA produces ECDSA signatures as an ASN.1 SEQUENCE of two INTEGERs, while JWS (RFC 7518, 3.4)
+     * expects R and S as fixed-length big-endian values back to back.
+     */
+    static byte[] derToConcatenated(byte[] der, int coordinateLength) {
+        int offset = 2;
+        if ((der[1] & 0x80) != 0) {
+            offset += der[1] & 0x7f;
+        }
+        byte[] concatenated = new byte[coordinateLength * 2];
+        offset = copyInteger(der, offset, concatenated, 0, coordinateLength);
+        copyInteger(der, offset, concatenated, coordinateLength, coordinateLength);
+        return concatenated;
+    }
+
+    private static int copyInteger(byte[] der, int offset, byte[] target, int targetOffset, int coordinateLength) {
+        int length = der[offset + 1];
+        int start = offset + 2;
+        int end = start + length;
+        while (length > coordinateLength) {
+            // Leading zero that keeps a high-bit value positive in DER
+            start++;
+            length--;
+        }
+        System.arraycopy(der, start, target, targetOffset + coordinateLength - length, length);
+        return end;
+    }
+
+    private static final class Scratch {
+        private final Claims claims = new Claims();
+        private final Buffer token = new Buffer(1024);
+        private Key macKey;
+        private Mac mac;
+        private byte[] macOutput;
+        private Key signatureKey;
+        private Signature signature;
+        private int signatureLength;
+    }
+
+    /**
+     * Streaming writer for the JSON claims object. Null values are skipped, as they are by
+     * {@code JwtBuilder.claim}.
+     */
+    public static final class Claims {
+
+        private final Buffer buffer = new Buffer(512);
+        private boolean first;
+        private boolean firstElement;
+
+        private void reset() {
+            buffer.length = 0;
+            buffer.append((byte) '{');
+            first = true;
+        }
+
+        private void finish() {
+            buffer.append((byte) '}');
+        }
+
+        public Claims string(String name, String value) {
+            if (value != null) {
+                name(name);
+                quoted(null, value);
+            }
+            return this;
+        }
+
+        public Claims number(String name, long value) {
+            name(name);
+            buffer.appendAscii(Long.toString(value));
+            return this;
+        }
+
+        public Claims array(String name, Iterable<String> values) {
+            beginArray(name);
+            for (String value : values) {
+                element(value);
+            }
+            return endArray();
+        }
+
+        public Claims beginArray(String name) {
+            name(name);
+            buffer.append((byte) '[');
+            firstElement = true;
+            return this;
+        }
+
+        public Claims element(String value) {
+            return element(null, value);
+        }
+
+        /**
+         * Writes {@code prefix + value} as one array element without concatenating the strings first.
+         */
+        public Claims element(String prefix, String value) {
+            if (!firstElement) {
+                buffer.append((byte) ',');
+            }
+            firstElement = false;
+            quoted(prefix, value);
+            return this;
+        }
+
+        public Claims endArray() {
+            buffer.append((byte) ']');
+            return this;
+        }
+
+        private void name(String name) {
+            if (!first) {
+                buffer.append((byte) ',');
+            }
+            first = false;
+            quoted(null, name);
+            buffer.append((byte) ':');
+        }
+
+        private void quoted(String prefix, String value) {
+            buffer.append((byte) '"');
+            if (prefix != null) {
+                escaped(prefix);
+            }
+            escaped(value);
+            buffer.append((byte) '"');
+        }
+
+        private void escaped(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    buffer.append((byte) '\\');
+                    buffer.append((byte) c);
+                } else if (c < 0x20) {
+                    buffer.append((byte) '\\');
+                    buffer.append((byte) 'u');
+                    buffer.append((byte) '0');
+                    buffer.append((byte) '0');
+                    buffer.append(HEX[c >> 4]);
+                    buffer.append(HEX[c & 0xf]);
+                } else if (c < 0x80) {
+                    buffer.append((byte) c);
+                } else if (c < 0x800) {
+                    buffer.append((byte) (0xc0 | (c >> 6)));
+                    buffer.append((byte) (0x80 | (c & 0x3f)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.append((byte) (0xf0 | (codePoint >> 18)));
+                    buffer.append((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                    buffer.append((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                    buffer.append((byte) (0x80 | (codePoint & 0x3f)));
+                } else {
+                    buffer.append((byte) (0xe0 | (c >> 12)));
+                    buffer.append((byte) (0x80 | ((c >> 6) & 0x3f)));
+                    buffer.append((byte) (0x80 | (c & 0x3f)));
+                }
+            }
+        }
+    }
+
+    private static final class Buffer {
+
+        private byte[] bytes;
+        private int length;
+
+        private Buffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        private void append(byte b) {
+            ensureCapacity(1);
+            bytes[length++] = b;
+        }
+
+        private void append(byte[] source) {
+            ensureCapacity(source.length);
+            System.arraycopy(source, 0, bytes, length, source.length);
+            length += source.length;
+        }
+
+        private void appendAscii(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        private void appendBase64Url(byte[] source, int offset, int count) {
+            ensureCapacity((count * 4 + 2) / 3);
+            int end = offset + count;
+            int i = offset;
+            while (end - i >= 3) {
+                int bits = (source[i++] & 0xff) << 16 | (source[i++] & 0xff) << 8 | (source[i++] & 0xff);
+                bytes[length++] = BASE64_URL[(bits >>> 18) & 0x3f];
+                bytes[length++] = BASE64_URL[(bits >>> 12) & 0x3f];
+                bytes[length++] = BASE64_URL[(bits >>> 6) & 0x3f];
+                bytes[length++] = BASE64_URL[bits & 0x3f];
+            }
+            int remaining = end - i;
+            if (remaining == 1) {
+                int bits = (source[i] & 0xff) << 16;
+                bytes[length++] = BASE64_URL[(bits >>> 18) & 0x3f];
+                bytes[length++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            } else if (remaining == 2) {
+                int bits = (source[i] & 0xff) << 16 | (source[i + 1] & 0xff) << 8;
+                bytes[length++] = BASE64_URL[(bits >>> 18) & 0x3f];
+                bytes[length++] = BASE64_URL[(bits >>> 12) & 0x3f];
+                bytes[length++] = BASE64_URL[(bits >>> 6) & 0x3f];
+            }
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+            }
+        }
+    }
+}
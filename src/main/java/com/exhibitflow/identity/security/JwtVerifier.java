@@ -0,0 +1,281 @@
+package com.exhibitflow.identity.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.EdECKey;
+import java.security.interfaces.RSAKey;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Checks compact JWS tokens and reports why a token was rejected as a {@link TokenStatus} instead
+ * of throwing. Garbage, tampered and expired tokens, which are most of what a misbehaving client
+ * sends, are rejected without creating an exception; JSON parsing of the payload only happens
+ * after the signature has been verified.
+ * <p>
+ * Accepts what {@link JwtMinter} (and previously jjwt) produces: HMAC tokens without a {@code kid},
+ * and RS256, ES256 or EdDSA tokens whose {@code kid} names a key from the key ring.
+ */
+public class JwtVerifier {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {
+    };
+    private static final int MAX_CACHED_HEADERS = 64;
+    private static final int ES256_COORDINATE_LENGTH = 32;
+
+    private final SecretKey hmacKey;
+    private final String hmacAlgorithm;
+    private final Function<String, PublicKey> verificationKeys;
+
+    // Live tokens share a handful of distinct headers, one per signing key
+    private final Map<String, Header> headers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public JwtVerifier(JwtMinter.SigningKey hmacSigningKey, Function<String, PublicKey> verificationKeys) {
+        this.hmacKey = (SecretKey) hmacSigningKey.key();
+        this.hmacAlgorithm = hmacSigningKey.algorithm();
+        this.verificationKeys = verificationKeys;
+    }
+
+    public record Verification(TokenStatus status, Map<String, Object> claims) {
+
+        private static final Verification MALFORMED = new Verification(TokenStatus.MALFORMED, null);
+        private static final Verification BAD_SIGNATURE = new Verification(TokenStatus.BAD_SIGNATURE, null);
+        private static final Verification EXPIRED = new Verification(TokenStatus.EXPIRED, null);
+    }
+
+    public Verification verify(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || payloadEnd == token.length() - 1
+                || token.indexOf('.', payloadEnd + 1) >= 0
+                || !isBase64Url(token, 0, headerEnd)
+                || !isBase64Url(token, headerEnd + 1, payloadEnd)
+                || !isBase64Url(token, payloadEnd + 1, token.length())) {
+            return Verification.MALFORMED;
+        }
+
+        String encodedHeader = token.substring(0, headerEnd);
+        Header header = headers.get(encodedHeader);
+        if (header == null) {
+            header = parseHeader(encodedHeader);
+        }
+        if (header == null) {
+            return Verification.MALFORMED;
+        }
+
+        Scratch scratch = this.scratch.get();
+        byte[] signature = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+        byte[] signingInput = scratch.signingInput(token, payloadEnd);
+        if (!signatureMatches(scratch, header, signingInput, payloadEnd, signature)) {
+            return Verification.BAD_SIGNATURE;
+        }
+        if (headers.size() < MAX_CACHED_HEADERS) {
+            // Only headers that carried a valid signature, so junk cannot crowd out real ones
+            headers.putIfAbsent(encodedHeader, header);
+        }
+
+        Map<String, Object> claims = parseJson(token.substring(headerEnd + 1, payloadEnd));
+        if (claims == null
+                || !(claims.get("sub") == null || claims.get("sub") instanceof String)
+                || !isNumericDateOrAbsent(claims.get("exp"))
+                || !isNumericDateOrAbsent(claims.get("iat"))
+                || !isNumericDateOrAbsent(claims.get("nbf"))) {
+            return Verification.MALFORMED;
+        }
+
+        long now = System.currentTimeMillis();
+        if (claims.get("exp") instanceof Number exp && now > exp.longValue() * 1000) {
+            return Verification.EXPIRED;
+        }
+        if (claims.get("nbf") instanceof Number notBefore && now < notBefore.longValue() * 1000) {
+            // Outside the validity window, the same as an expired token for callers
+            return Verification.EXPIRED;
+        }
+        return new Verification(TokenStatus.VALID, claims);
+    }
+
+    private boolean signatureMatches(Scratch scratch, Header header, byte[] input, int length, byte[] signature) {
+        try {
+            if (header.kid() == null) {
+                if (!hmacAlgorithm.equals(header.alg())) {
+                    return false;
+                }
+                Mac mac = scratch.mac(hmacKey);
+                if (signature.length != mac.getMacLength()) {
+                    return false;
+                }
+                mac.update(input, 0, length);
+                mac.doFinal(scratch.macOutput, 0);
+                return MessageDigest.isEqual(scratch.macOutput, signature);
+            }
+
+            PublicKey key = verificationKeys.apply(header.kid());
+            if (key == null || !header.alg().equals(algorithmOf(key)) || !hasExpectedLength(key, signature)) {
+                return false;
+            }
+            if (key instanceof ECKey) {
+                signature = concatenatedToDer(signature, ES256_COORDINATE_LENGTH);
+            }
+            Signature verifier = scratch.signature(key, header.alg());
+            verifier.update(input, 0, length);
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            // Only reachable for signatures that passed the length checks but are still not well-formed;
+            // start from a fresh instance rather than trust its state afterwards
+            scratch.signatureKey = null;
+            return false;
+        }
+    }
+
+    private static Header parseHeader(String encoded) {
+        Map<String, Object> fields = parseJson(encoded);
+        if (fields == null || !(fields.get("alg") instanceof String alg)
+                || !(fields.get("kid") == null || fields.get("kid") instanceof String)
+                || fields.containsKey("crit")) {
+            return null;
+        }
+        return new Header(alg, (String) fields.get("kid"));
+    }
+
+    private static Map<String, Object> parseJson(String encoded) {
+        byte[] json = Base64.getUrlDecoder().decode(encoded);
+        // Cheap guard so that random bytes do not reach the JSON parser and its exceptions
+        if (json.length < 2 || json[0] != '{' || json[json.length - 1] != '}') {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, CLAIMS_TYPE);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isNumericDateOrAbsent(Object value) {
+        return value == null || value instanceof Number;
+    }
+
+    private static String algorithmOf(PublicKey key) {
+        if (key instanceof RSAKey) {
+            return "RS256";
+        }
+        if (key instanceof ECKey) {
+            return "ES256";
+        }
+        if (key instanceof EdECKey) {
+            return "EdDSA";
+        }
+        return null;
+    }
+
+    private static boolean hasExpectedLength(PublicKey key, byte[] signature) {
+        if (key instanceof RSAKey rsaKey) {
+            return signature.length == (rsaKey.getModulus().bitLength() + 7) / 8;
+        }
+        // ES256 is R||S with 32 bytes each, Ed25519 signatures are 64 bytes
+        return signature.length == 64;
+    }
+
+    /**
+     * Base64url without padding, at a length that can be produced by encoding whole bytes. Such
+     * input never makes {@link Base64.Decoder} throw.
+     */
+    private static boolean isBase64Url(String value, int start, int end) {
+        if (end <= start || (end - start) % 4 == 1) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Inverse of {@link JwtMinter#derToConcatenated}. */
+    static byte[] concatenatedToDer(byte[] concatenated, int coordinateLength) {
+        byte[] r = derInteger(concatenated, 0, coordinateLength);
+        byte[] s = derInteger(concatenated, coordinateLength, coordinateLength);
+        byte[] der = new byte[2 + r.length + s.length];
+        der[0] = 0x30;
+        der[1] = (byte) (r.length + s.length);
+        System.arraycopy(r, 0, der, 2, r.length);
+        System.arraycopy(s, 0, der, 2 + r.length, s.length);
+        return der;
+    }
+
+    private static byte[] derInteger(byte[] source, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end - 1 && source[start] == 0) {
+            start++;
+        }
+        boolean pad = (source[start] & 0x80) != 0;
+        int valueLength = end - start;
+        byte[] integer = new byte[2 + (pad ? 1 : 0) + valueLength];
+        integer[0] = 0x02;
+        integer[1] = (byte) (valueLength + (pad ? 1 : 0));
+        System.arraycopy(source, start, integer, pad ? 3 : 2, valueLength);
+        return integer;
+    }
+
+    private record Header(String alg, String kid) {
+    }
+
+    private static final class Scratch {
+        private byte[] input = new byte[1024];
+        private Key macKey;
+        private Mac mac;
+        private byte[] macOutput;
+        private Key signatureKey;
+        private Signature signature;
+
+        private byte[] signingInput(String token, int length) {
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            // Validated as base64url and '.', so every char is a single byte
+            for (int i = 0; i < length; i++) {
+                input[i] = (byte) token.charAt(i);
+            }
+            return input;
+        }
+
+        private Mac mac(SecretKey key) throws GeneralSecurityException {
+            if (macKey != key) {
+                mac = Mac.getInstance(key.getAlgorithm());
+                mac.init(key);
+                macKey = key;
+                macOutput = new byte[mac.getMacLength()];
+            }
+            return mac;
+        }
+
+        private Signature signature(PublicKey key, String algorithm) throws GeneralSecurityException {
+            if (signatureKey != key) {
+                signature = Signature.getInstance(switch (algorithm) {
+                    case "RS256" -> "SHA256withRSA";
+                    case "ES256" -> "SHA256withECDSA";
+                    default -> "EdDSA";
+                });
+                signature.initVerify(key);
+                signatureKey = key;
+            }
+            return signature;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.exhibitflow.identity.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Builds the password encoder from {@code password-hashing.*}: a {@link DelegatingPasswordEncoder}
+ * that hashes with BCrypt or Argon2id under a {@code {bcrypt}}/{@code {argon2}} prefix and
+ * verifies either, plus unprefixed BCrypt hashes stored before prefixes were introduced.
+ * {@code upgradeEncoding} is true for hashes of the other algorithm, without a prefix or with a
+ * lower cost than configured, so they are rehashed on the next successful login.
+ * <p>
+ * With {@code calibrate} enabled, the configured cost is a floor. It is raised on startup until
+ * one hash takes about {@code target-duration} on this machine. Instances on different hardware
+ * may settle on different costs. Every instance verifies every hash, and none downgrades a hash
+ * another instance made costlier.
+ */
+@Component
+@Slf4j
+public class PasswordEncoderFactory {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    @Value("${password-hashing.algorithm:bcrypt}")
+    private String algorithm;
+
+    @Value("${password-hashing.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${password-hashing.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+
+    @Value("${password-hashing.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${password-hashing.argon2.parallelism:1}")
+    private int argon2Parallelism;
+
+    @Value("${password-hashing.calibrate:false}")
+    private boolean calibrate;
+
+    @Value("${password-hashing.target-duration:PT0.25S}")
+    private Duration targetDuration;
+
+    public PasswordEncoder create() {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password hashing algorithm: " + algorithm);
+        }
+        int strength = bcryptStrength;
+        int iterations = argon2Iterations;
+        if (calibrate) {
+            // Only the algorithm that hashes is calibrated; the other one only verifies
+            if (BCRYPT.equals(algorithm)) {
+                strength = calibrateBcryptStrength(bcryptStrength, targetDuration);
+            } else {
+                iterations = calibrateArgon2Iterations(argon2MemoryKib, argon2Iterations, argon2Parallelism,
+                        targetDuration);
+            }
+        }
+        log.info("Hashing passwords with {} (bcrypt strength {}, argon2 memory {} KiB, iterations {}, parallelism {})",
+                algorithm, strength, argon2MemoryKib, iterations, argon2Parallelism);
+        return delegating(algorithm, strength, argon2MemoryKib, iterations, argon2Parallelism);
+    }
+
+    public static PasswordEncoder delegating(String algorithm, int bcryptStrength, int argon2MemoryKib,
+                                             int argon2Iterations, int argon2Parallelism) {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        PasswordEncoder argon2 = argon2(argon2MemoryKib, argon2Iterations, argon2Parallelism);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm,
+                Map.of(BCRYPT, bcrypt, ARGON2, argon2));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Highest BCrypt strength, not below {@code minimum}, whose hash takes at most {@code target}.
+     * Each step doubles the work, so one measurement at {@code minimum} predicts the rest.
+     */
+    public static int calibrateBcryptStrength(int minimum, Duration target) {
+        long nanos = fastestHashNanos(new BCryptPasswordEncoder(minimum));
+        int strength = minimum;
+        while (strength < MAX_BCRYPT_STRENGTH && nanos * 2 <= target.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    /**
+     * Highest Argon2id iteration count, not below {@code minimum}, whose hash takes at most
+     * {@code target} with the given memory. Time grows linearly with iterations.
+     */
+    public static int calibrateArgon2Iterations(int memoryKib, int minimum, int parallelism, Duration target) {
+        long nanos = fastestHashNanos(argon2(memoryKib, minimum, parallelism));
+        long iterations = minimum * target.toNanos() / Math.max(1, nanos);
+        return (int) Math.max(minimum, Math.min(iterations, Integer.MAX_VALUE));
+    }
+
+    private static PasswordEncoder argon2(int memoryKib, int iterations, int parallelism) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, parallelism, memoryKib, iterations);
+    }
+
+    private static long fastestHashNanos(PasswordEncoder encoder) {
+        // The first hash warms up the code; the fastest of the rest is the least disturbed
+        encoder.encode(CALIBRATION_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
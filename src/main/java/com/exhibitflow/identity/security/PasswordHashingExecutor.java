@@ -0,0 +1,152 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on its own pool of one thread per core, so a burst of logins queues here
+ * instead of taking the CPU from request threads serving cheap endpoints. At most
+ * {@code queue-capacity} hashes wait for a thread; past that {@link #call} fails fast with
+ * {@link PasswordHashingBusyException} rather than letting callers pile up.
+ * <p>
+ * Bulk work such as the user import goes through {@link #submitBulk}, which waits for room instead
+ * and keeps at most one hash per thread in flight, so it never takes the queue from logins.
+ * <p>
+ * Exports {@code password.hashing.queue.depth}, {@code password.hashing.wait},
+ * {@code password.hashing.duration{operation=...}} and {@code password.hashing.rejected}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${password-hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${password-hashing.retry-after:PT1S}")
+    private Duration retryAfter;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore admissions;
+    private Semaphore bulkAdmissions;
+    private Timer waitTimer;
+    private Counter rejections;
+    private final Map<String, Timer> durationTimers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // The queue itself is unbounded; these permits bound what is running plus waiting
+        admissions = new Semaphore(poolSize + queueCapacity);
+        bulkAdmissions = new Semaphore(poolSize);
+
+        Gauge.builder("password.hashing.queue.depth", this, PasswordHashingExecutor::getQueueDepth)
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .register(meterRegistry);
+        rejections = Counter.builder("password.hashing.rejected")
+                .description("Password hashes refused because the queue was full")
+                .register(meterRegistry);
+        log.info("Password hashing pool started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /** Hashes waiting for a hashing thread. */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool and waits for its result.
+     *
+     * @throws PasswordHashingBusyException if the queue is full
+     */
+    public <T> T call(String operation, Supplier<T> task) {
+        if (!admissions.tryAcquire()) {
+            rejections.increment();
+            throw new PasswordHashingBusyException("Too many password checks in progress, retry later", retryAfter);
+        }
+        try {
+            return submit(operation, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Runs {@code task} on the hashing pool, first waiting while this caller's share is in use. */
+    public <T> CompletableFuture<T> submitBulk(String operation, Supplier<T> task) {
+        bulkAdmissions.acquireUninterruptibly();
+        admissions.acquireUninterruptibly();
+        try {
+            return submit(operation, task).whenComplete((result, failure) -> bulkAdmissions.release());
+        } catch (RuntimeException e) {
+            bulkAdmissions.release();
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    return durationTimer(operation).record(task);
+                } finally {
+                    admissions.release();
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            // Rejected by a pool that is shutting down
+            admissions.release();
+            throw e;
+        }
+    }
+
+    private Timer durationTimer(String operation) {
+        return durationTimers.computeIfAbsent(operation, name -> Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", name)
+                .register(meterRegistry));
+    }
+}
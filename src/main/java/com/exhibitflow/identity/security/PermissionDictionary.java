@@ -0,0 +1,190 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.CatalogChangeEvent;
+import com.exhibitflow.identity.model.PermissionDictionaryVersion;
+import com.exhibitflow.identity.repository.PermissionDictionaryVersionRepository;
+import com.exhibitflow.identity.repository.PermissionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versioned, ordered list of permission names that compact access tokens reference by index.
+ * <p>
+ * A version is a digest of the ordered names, so every instance reading the same catalog derives
+ * the same version without coordination. Each version is stored in
+ * {@code permission_dictionary_versions} before a token can reference it, so tokens minted before a
+ * catalog change or a restart, or by another instance, keep decoding until they expire.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PermissionDictionary {
+
+    private static final int VERSION_LENGTH = 12;
+    private static final Duration RELOAD_BACKOFF = Duration.ofMinutes(1);
+
+    private final PermissionRepository permissionRepository;
+    private final PermissionDictionaryVersionRepository versionRepository;
+
+    // Versions are immutable and created only by catalog changes, so the stored set stays small
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    // The dictionary endpoint is public; do not look up the same unknown version on every request
+    private final Cache<String, Boolean> unknownVersions = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(RELOAD_BACKOFF)
+            .build();
+
+    private volatile Version current;
+    private volatile Instant lastReload = Instant.EPOCH;
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    public Version getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the requested version, reading it from the stored versions when it is not in memory,
+     * e.g. after a restart or when another instance changed the catalog.
+     */
+    public Optional<Version> find(String version) {
+        Version found = versions.get(version);
+        if (found != null) {
+            return Optional.of(found);
+        }
+        if (version.length() != VERSION_LENGTH || unknownVersions.getIfPresent(version) != null) {
+            return Optional.empty();
+        }
+        Optional<Version> stored = versionRepository.findById(version)
+                .map(row -> new Version(row.getVersion(), splitNames(row.getNames())));
+        if (stored.isEmpty()) {
+            unknownVersions.put(version, Boolean.TRUE);
+            return Optional.empty();
+        }
+        log.info("Loaded stored permission dictionary version {}", version);
+        return Optional.of(versions.computeIfAbsent(version, key -> stored.get()));
+    }
+
+    /**
+     * Encodes permission names against the current version, or returns empty if a name is not in the
+     * catalog even after a reload, in which case callers should fall back to listing names.
+     */
+    public Optional<Encoded> encode(Collection<String> permissionNames) {
+        Version version = current;
+        BitSet bits = version.toBits(permissionNames);
+        if (bits == null && Instant.now().isAfter(lastReload.plus(RELOAD_BACKOFF))) {
+            reload();
+            version = current;
+            bits = version.toBits(permissionNames);
+        }
+        if (bits == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Encoded(version.id(),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray())));
+    }
+
+    /**
+     * Decodes a bitset produced by {@link #encode}; returns empty if the version is unknown, which
+     * for a verified token means it was never stored and the token cannot be trusted.
+     */
+    public Optional<List<String>> decode(String version, String encodedBits) {
+        return find(version).map(found -> found.fromBits(BitSet.valueOf(Base64.getUrlDecoder().decode(encodedBits))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (!event.isRoleChange()) {
+            reload();
+        }
+    }
+
+    public synchronized void reload() {
+        List<String> names = List.copyOf(permissionRepository.findAllNamesInCreationOrder());
+        String joined = String.join("\n", names);
+        String id = TokenDigest.of(joined).substring(0, VERSION_LENGTH);
+        if (!versions.containsKey(id)) {
+            // Stored before any token can reference it
+            store(id, joined);
+            unknownVersions.invalidate(id);
+        }
+        Version version = versions.computeIfAbsent(id, key -> new Version(key, names));
+        if (current == null || !current.id().equals(id)) {
+            log.info("Permission dictionary version {} with {} entries", id, names.size());
+        }
+        current = version;
+        lastReload = Instant.now();
+    }
+
+    private void store(String id, String names) {
+        if (versionRepository.existsById(id)) {
+            return;
+        }
+        try {
+            versionRepository.save(PermissionDictionaryVersion.builder()
+                    .version(id)
+                    .names(names)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same version first; versions are content-addressed
+            log.debug("Permission dictionary version {} already stored", id);
+        }
+    }
+
+    private static List<String> splitNames(String names) {
+        return names.isEmpty() ? List.of() : List.of(names.split("\n", -1));
+    }
+
+    public record Encoded(String version, String bits) {
+    }
+
+    public record Version(String id, List<String> names, Map<String, Integer> indexes) {
+
+        Version(String id, List<String> names) {
+            this(id, names, indexOf(names));
+        }
+
+        private static Map<String, Integer> indexOf(List<String> names) {
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                indexes.put(names.get(i), i);
+            }
+            return Map.copyOf(indexes);
+        }
+
+        BitSet toBits(Collection<String> permissionNames) {
+            BitSet bits = new BitSet(names.size());
+            for (String name : permissionNames) {
+                Integer index = indexes.get(name);
+                if (index == null) {
+                    return null;
+                }
+                bits.set(index);
+            }
+            return bits;
+        }
+
+        List<String> fromBits(BitSet bits) {
+            List<String> decoded = new ArrayList<>(bits.cardinality());
+            for (int i = bits.nextSetBit(0); i >= 0 && i < names.size(); i = bits.nextSetBit(i + 1)) {
+                decoded.add(names.get(i));
+            }
+            return decoded;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.exhibitflow.identity.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Password encoder that hashes and verifies on the {@link PasswordHashingExecutor} instead of the
+ * calling thread. {@code DaoAuthenticationProvider}, registration and admin user creation use it
+ * as the {@link PasswordEncoder} bean; the user import uses {@link #encodeInBulk}.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.call("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.call("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /** Encodes on the pool as bulk work: waits for room rather than failing when logins fill the queue. */
+    public CompletableFuture<String> encodeInBulk(CharSequence rawPassword) {
+        return executor.submitBulk("encode", () -> delegate.encode(rawPassword));
+    }
+}
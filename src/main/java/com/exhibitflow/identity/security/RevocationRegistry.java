@@ -0,0 +1,193 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import com.exhibitflow.identity.model.AuthorizationRevocation;
+import com.exhibitflow.identity.repository.AuthorizationRevocationRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the access changes that stateless authentication has to honour without
+ * reading the user from the database: disabled users, and "not before" instants for users
+ * and roles whose authorities changed after a token was issued.
+ * <p>
+ * Not-before instants are written to {@code authorization_revocations} in the transaction that
+ * made the change, and every {@code jwt.revocation.refresh-interval} each instance reloads them
+ * together with the disabled users, so changes made on another instance or directly in the
+ * database are honoured within one interval. A disable also sets a not-before instant, so it
+ * reaches other instances through the same table.
+ * <p>
+ * Instants are truncated to seconds because that is the precision of the {@code iat} claim, and a
+ * token issued within the second of a change is treated as issued before it.
+ * Entries older than the access token lifetime can no longer match a live token and are pruned.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RevocationRegistry {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final UserRepository userRepository;
+    private final AuthorizationRevocationRepository revocationRepository;
+
+    private final Set<String> disabledUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Instant> userNotBefore = new ConcurrentHashMap<>();
+    private final Map<String, Instant> roleNotBefore = new ConcurrentHashMap<>();
+
+    @Value("${jwt.stateless-authentication:false}")
+    private boolean statelessAuthentication;
+
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+        if (statelessAuthentication) {
+            log.info("Loaded {} disabled users for stateless authentication", disabledUsers.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT30S}",
+            initialDelayString = "${jwt.revocation.refresh-interval:PT30S}")
+    public void reload() {
+        if (!statelessAuthentication) {
+            return;
+        }
+        Set<String> disabled = new HashSet<>(userRepository.findDisabledUsernames());
+        disabledUsers.addAll(disabled);
+        // A local disable racing this query is still covered by the not-before instant it set
+        disabledUsers.retainAll(disabled);
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime horizon = toUtc(horizon(now));
+        for (AuthorizationRevocation revocation : revocationRepository.findByNotBeforeGreaterThanEqual(horizon)) {
+            Map<String, Instant> notBefore = revocation.getSubjectType() == AuthorizationRevocation.SubjectType.USER
+                    ? userNotBefore
+                    : roleNotBefore;
+            notBefore.merge(revocation.getSubject(), revocation.getNotBefore().toInstant(ZoneOffset.UTC),
+                    RevocationRegistry::latest);
+        }
+        revocationRepository.deleteOlderThan(horizon);
+        prune(now);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        String username = token.getSubject();
+        if (disabledUsers.contains(username)) {
+            return true;
+        }
+
+        Instant issuedAt = token.getIssuedAt();
+        if (issuedAt == null) {
+            return true;
+        }
+        if (issuedNotAfter(issuedAt, userNotBefore.get(username))) {
+            return true;
+        }
+        if (!roleNotBefore.isEmpty()) {
+            for (String authority : token.getAuthorities()) {
+                if (authority.startsWith(ROLE_PREFIX)
+                        && issuedNotAfter(issuedAt, roleNotBefore.get(authority.substring(ROLE_PREFIX.length())))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Records the change for other instances, in the same transaction as the change itself. */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordRevocation(AuthorizationChangeEvent event) {
+        if (!statelessAuthentication) {
+            return;
+        }
+        LocalDateTime notBefore = toUtc(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        List<AuthorizationRevocation> revocations = new ArrayList<>();
+        switch (event.getType()) {
+            case USER_DISABLED, USER_DELETED, USER_ROLES_CHANGED -> event.getUsernames().forEach(username ->
+                    revocations.add(revocation(AuthorizationRevocation.SubjectType.USER, username, notBefore)));
+            case ROLE_PERMISSIONS_CHANGED, ROLE_MEMBERSHIP_CHANGED -> revocations.add(
+                    revocation(AuthorizationRevocation.SubjectType.ROLE, event.getRoleName(), notBefore));
+            default -> {
+            }
+        }
+        if (!revocations.isEmpty()) {
+            revocationRepository.saveAll(revocations);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        switch (event.getType()) {
+            case USER_DISABLED -> {
+                disabledUsers.addAll(event.getUsernames());
+                event.getUsernames().forEach(username -> userNotBefore.merge(username, now, RevocationRegistry::latest));
+            }
+            case USER_ENABLED -> disabledUsers.removeAll(event.getUsernames());
+            case USER_DELETED, USER_ROLES_CHANGED ->
+                    event.getUsernames().forEach(username -> userNotBefore.merge(username, now, RevocationRegistry::latest));
+            case ROLE_PERMISSIONS_CHANGED, ROLE_MEMBERSHIP_CHANGED ->
+                    roleNotBefore.merge(event.getRoleName(), now, RevocationRegistry::latest);
+            default -> {
+            }
+        }
+        prune(now);
+    }
+
+    private void prune(Instant now) {
+        Instant horizon = horizon(now);
+        userNotBefore.values().removeIf(instant -> instant.isBefore(horizon));
+        roleNotBefore.values().removeIf(instant -> instant.isBefore(horizon));
+    }
+
+    private Instant horizon(Instant now) {
+        return now.minusMillis(expiration);
+    }
+
+    private static AuthorizationRevocation revocation(AuthorizationRevocation.SubjectType subjectType,
+                                                      String subject, LocalDateTime notBefore) {
+        return AuthorizationRevocation.builder()
+                .subjectType(subjectType)
+                .subject(subject)
+                .notBefore(notBefore)
+                .build();
+    }
+
+    private static LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * {@code iat} has whole-second precision, so a token from the same second as the change may
+     * have been minted with the old authorities and counts as issued before it.
+     */
+    private static boolean issuedNotAfter(Instant issuedAt, Instant notBefore) {
+        return notBefore != null && !issuedAt.isAfter(notBefore);
+    }
+}
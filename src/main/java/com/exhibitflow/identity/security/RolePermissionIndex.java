@@ -0,0 +1,181 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.CatalogChangeEvent;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserAuthorizationRepository;
+import com.exhibitflow.identity.repository.UserAuthorizationRepository.AuthorizationRow;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, versioned in-memory index from role ID to role name and permission names. Roles and
+ * permissions are a small catalog that rarely changes while users are many, so per-user lookups
+ * only fetch role IDs and expand them here instead of joining permissions for every user. Each
+ * distinct role combination resolves to one shared {@link AuthoritySet}.
+ * <p>
+ * The index is rebuilt and swapped atomically after a role change commits. Changes committed by
+ * another instance are picked up by a periodic rebuild, or earlier when a user holds a role ID the
+ * index does not know yet.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RolePermissionIndex {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Snapshot current = Snapshot.EMPTY;
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    public Snapshot getCurrent() {
+        return current;
+    }
+
+    /** Expands a row from {@link UserAuthorizationRepository} to the user's shared authority set. */
+    public UserAuthorization expand(AuthorizationRow row) {
+        Snapshot snapshot = current;
+        if (!snapshot.knowsAll(row.roleIds())) {
+            // user_roles references roles by foreign key, so an unknown ID always means a stale index
+            snapshot = rebuildUnlessKnown(row.roleIds());
+        }
+        return new UserAuthorization(row.id(), row.username(), row.email(), row.password(), row.enabled(),
+                row.accountNonExpired(), row.accountNonLocked(), row.credentialsNonExpired(),
+                snapshot.authoritiesFor(row.roleIds()));
+    }
+
+    // Runs before the cache evictions triggered by the same commit, so nothing reloaded in between
+    // is computed from the previous index and then kept
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.isRoleChange()) {
+            rebuild();
+        }
+    }
+
+    private synchronized Snapshot rebuildUnlessKnown(Set<UUID> roleIds) {
+        if (!current.knowsAll(roleIds)) {
+            rebuild();
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${security.role-index.refresh-interval:PT5M}",
+            initialDelayString = "${security.role-index.refresh-interval:PT5M}")
+    public synchronized void rebuild() {
+        Map<UUID, String> names = new HashMap<>();
+        Map<UUID, Set<String>> permissions = new HashMap<>();
+        for (RoleRepository.RolePermissionRow row : roleRepository.findAllRolePermissionRows()) {
+            names.put(row.getRoleId(), row.getRoleName());
+            Set<String> rolePermissions = permissions.computeIfAbsent(row.getRoleId(), id -> new HashSet<>());
+            if (row.getPermissionName() != null) {
+                rolePermissions.add(row.getPermissionName());
+            }
+        }
+        Map<UUID, RoleGrants> roles = new HashMap<>();
+        names.forEach((id, name) -> roles.put(id, new RoleGrants(name, Set.copyOf(permissions.get(id)))));
+
+        Snapshot previous = current;
+        if (!roles.equals(previous.roles())) {
+            current = new Snapshot(previous.version() + 1, Map.copyOf(roles));
+            log.info("Role permission index version {} with {} roles", current.version(), roles.size());
+        }
+    }
+
+    public record RoleGrants(String name, Set<String> permissions) {
+    }
+
+    /**
+     * One immutable version of the index. {@link AuthoritySet}s are interned per distinct set of role
+     * IDs on first use; a rebuild starts a new snapshot and therefore a new intern table.
+     */
+    public static final class Snapshot {
+
+        // Real deployments have a handful of role combinations; past this, stop interning new ones
+        private static final int MAX_INTERNED_COMBINATIONS = 4096;
+
+        static final Snapshot EMPTY = new Snapshot(0, Map.of());
+
+        private final long version;
+        private final Map<UUID, RoleGrants> roles;
+        private final Map<Set<UUID>, AuthoritySet> combinations = new ConcurrentHashMap<>();
+        private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+        Snapshot(long version, Map<UUID, RoleGrants> roles) {
+            this.version = version;
+            this.roles = roles;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public Map<UUID, RoleGrants> roles() {
+            return roles;
+        }
+
+        /** The shared authority set for a combination of role IDs; unknown IDs are ignored. */
+        public AuthoritySet authoritiesFor(Set<UUID> roleIds) {
+            if (roleIds.isEmpty()) {
+                return AuthoritySet.NONE;
+            }
+            AuthoritySet interned = combinations.get(roleIds);
+            if (interned != null) {
+                return interned;
+            }
+            AuthoritySet combined = combine(roleIds);
+            if (combinations.size() >= MAX_INTERNED_COMBINATIONS) {
+                return combined;
+            }
+            AuthoritySet raced = combinations.putIfAbsent(Set.copyOf(roleIds), combined);
+            return raced != null ? raced : combined;
+        }
+
+        boolean knowsAll(Set<UUID> roleIds) {
+            return roles.keySet().containsAll(roleIds);
+        }
+
+        private AuthoritySet combine(Set<UUID> roleIds) {
+            List<String> roleNames = new ArrayList<>(roleIds.size());
+            // A user can hold the same permission through several roles
+            Set<String> permissionNames = new TreeSet<>();
+            for (UUID roleId : roleIds) {
+                RoleGrants grants = roles.get(roleId);
+                if (grants != null) {
+                    roleNames.add(grants.name());
+                    permissionNames.addAll(grants.permissions());
+                }
+            }
+            Collections.sort(roleNames);
+
+            Set<GrantedAuthority> granted = new LinkedHashSet<>();
+            for (String roleName : roleNames) {
+                granted.add(authority("ROLE_" + roleName));
+            }
+            for (String permissionName : permissionNames) {
+                granted.add(authority(permissionName));
+            }
+            return new AuthoritySet(List.copyOf(roleNames), List.copyOf(permissionNames),
+                    Collections.unmodifiableSet(granted));
+        }
+
+        private GrantedAuthority authority(String name) {
+            return authorities.computeIfAbsent(name, SimpleGrantedAuthority::new);
+        }
+    }
+}
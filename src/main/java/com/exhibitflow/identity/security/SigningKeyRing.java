@@ -0,0 +1,345 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.model.SigningKey;
+import com.exhibitflow.identity.repository.SigningKeyRepository;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.*;
+import com.nimbusds.jose.util.Base64URL;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Persisted ring of asymmetric signing keys with overlapping rotation windows.
+ * <p>
+ * Each key signs for {@code jwt.key-rotation.interval}. Its successor is created and published
+ * {@code jwt.key-rotation.pre-publish} before it takes over, so JWKS caches downstream see the new
+ * {@code kid} before the first token signed with it. A retired key stays published until every token
+ * it may have signed has expired. Private keys are stored AES-GCM wrapped with a key derived from
+ * {@code jwt.secret}.
+ * <p>
+ * When {@code jwt.algorithm} is HS512 the ring still holds RS256 keys for the OAuth2 authorization
+ * server endpoints, which need an asymmetric key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SigningKeyRing {
+
+    public static final String HMAC_ALGORITHM = "HS512";
+
+    private static final Map<String, SignatureAlgorithm> SIGNATURE_ALGORITHMS = Map.of(
+            "RS256", Jwts.SIG.RS256,
+            "ES256", Jwts.SIG.ES256,
+            "EdDSA", Jwts.SIG.EdDSA
+    );
+    private static final Duration RELOAD_BACKOFF = Duration.ofMinutes(1);
+    private static final int GCM_IV_LENGTH = 12;
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    @Value("${jwt.algorithm:HS512}")
+    private String tokenAlgorithm;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    @Value("${jwt.refresh-expiration}")
+    private Long refreshExpiration;
+
+    @Value("${jwt.key-rotation.interval:P30D}")
+    private Duration rotationInterval;
+
+    @Value("${jwt.key-rotation.pre-publish:P1D}")
+    private Duration prePublish;
+
+    private String ringAlgorithm;
+    private SecretKeySpec wrappingKey;
+    private volatile Snapshot snapshot;
+    private volatile Instant lastRefresh = Instant.EPOCH;
+
+    @PostConstruct
+    void init() throws GeneralSecurityException {
+        if (!HMAC_ALGORITHM.equals(tokenAlgorithm) && !SIGNATURE_ALGORITHMS.containsKey(tokenAlgorithm)) {
+            throw new IllegalStateException("Unsupported jwt.algorithm: " + tokenAlgorithm
+                    + " (expected HS512, RS256, ES256 or EdDSA)");
+        }
+        ringAlgorithm = isAsymmetric() ? tokenAlgorithm : "RS256";
+        byte[] keyBytes = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        wrappingKey = new SecretKeySpec(keyBytes, "AES");
+        refresh();
+    }
+
+    /**
+     * Whether access and refresh tokens are signed from this ring rather than with the shared secret.
+     */
+    public boolean isAsymmetric() {
+        return !HMAC_ALGORITHM.equals(tokenAlgorithm);
+    }
+
+    public String getAlgorithm() {
+        return ringAlgorithm;
+    }
+
+    public ActiveKey getActiveKey() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ActiveKey key : snapshot.signingKeys()) {
+            if (!key.activatesAt().isAfter(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("No active signing key");
+    }
+
+    /**
+     * Returns the public key for {@code kid}, reloading the ring (at most once per minute) when
+     * the id is unknown, so keys created by another instance are picked up without waiting for
+     * the scheduled check.
+     */
+    public PublicKey findVerificationKey(String kid) {
+        PublicKey key = snapshot.verificationKeys().get(kid);
+        if (key == null && isReloadDue()) {
+            reloadForUnknownKid();
+            key = snapshot.verificationKeys().get(kid);
+        }
+        return key;
+    }
+
+    private synchronized void reloadForUnknownKid() {
+        // Checked again under the lock: a burst of forged kids queued behind one reload must not
+        // each start another
+        if (!isReloadDue()) {
+            return;
+        }
+        // Counts even if the reload fails, so an unavailable database is not hit once per token
+        lastRefresh = Instant.now();
+        refresh();
+    }
+
+    private boolean isReloadDue() {
+        return Instant.now().isAfter(lastRefresh.plus(RELOAD_BACKOFF));
+    }
+
+    /** Public keys of every key that may have signed a live token. */
+    public JWKSet getPublicJwkSet() {
+        return snapshot.publicJwkSet();
+    }
+
+    /** Same keys including private material, for the authorization server's JWT encoder. */
+    public JWKSet getSigningJwkSet() {
+        return snapshot.signingJwkSet();
+    }
+
+    public String getJwksJson() {
+        return snapshot.jwksJson();
+    }
+
+    public String getJwksEtag() {
+        return snapshot.jwksEtag();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.key-rotation.check-interval:PT1H}",
+            initialDelayString = "${jwt.key-rotation.check-interval:PT1H}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SigningKey> keys = new ArrayList<>(signingKeyRepository.findByExpiresAtAfterOrderByActivatesAtAsc(now));
+        Map<String, KeyPair> keyPairs = decode(keys);
+        keys.removeIf(key -> !keyPairs.containsKey(key.getKid()));
+
+        SigningKey active = keys.stream()
+                .filter(key -> ringAlgorithm.equals(key.getAlgorithm()) && key.isSigningAt(now))
+                .max(Comparator.comparing(SigningKey::getActivatesAt))
+                .orElse(null);
+        if (active == null) {
+            active = createKey(now, keyPairs);
+            keys.add(active);
+        }
+
+        LocalDateTime activeRetiresAt = active.getRetiresAt();
+        boolean hasSuccessor = keys.stream()
+                .anyMatch(key -> ringAlgorithm.equals(key.getAlgorithm())
+                        && !key.getActivatesAt().isBefore(activeRetiresAt));
+        if (!hasSuccessor && !now.plus(prePublish).isBefore(activeRetiresAt)) {
+            keys.add(createKey(activeRetiresAt, keyPairs));
+        }
+
+        snapshot = buildSnapshot(keys, keyPairs);
+        lastRefresh = Instant.now();
+    }
+
+    private SigningKey createKey(LocalDateTime activatesAt, Map<String, KeyPair> keyPairs) {
+        KeyPair keyPair = generateKeyPair(ringAlgorithm);
+        LocalDateTime retiresAt = activatesAt.plus(rotationInterval);
+        long longestTokenLifetime = Math.max(expiration, refreshExpiration);
+
+        SigningKey key = SigningKey.builder()
+                .kid(UUID.randomUUID().toString())
+                .algorithm(ringAlgorithm)
+                .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+                .privateKey(wrap(keyPair.getPrivate().getEncoded()))
+                .activatesAt(activatesAt)
+                .retiresAt(retiresAt)
+                .expiresAt(retiresAt.plus(Duration.ofMillis(longestTokenLifetime)))
+                .build();
+        SigningKey saved = signingKeyRepository.save(key);
+        keyPairs.put(saved.getKid(), keyPair);
+        log.info("Created {} signing key {} active from {} to {}", ringAlgorithm, saved.getKid(), activatesAt, retiresAt);
+        return saved;
+    }
+
+    private Map<String, KeyPair> decode(List<SigningKey> keys) {
+        Map<String, KeyPair> keyPairs = new HashMap<>();
+        for (SigningKey key : keys) {
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm(key.getAlgorithm()));
+                PublicKey publicKey = keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey())));
+                PrivateKey privateKey = keyFactory.generatePrivate(
+                        new PKCS8EncodedKeySpec(unwrap(key.getPrivateKey())));
+                keyPairs.put(key.getKid(), new KeyPair(publicKey, privateKey));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Ignoring signing key {}: {}", key.getKid(), e.getMessage());
+            }
+        }
+        return keyPairs;
+    }
+
+    private Snapshot buildSnapshot(List<SigningKey> keys, Map<String, KeyPair> keyPairs) {
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        List<ActiveKey> signingKeys = new ArrayList<>();
+        List<JWK> jwks = new ArrayList<>();
+
+        for (SigningKey key : keys) {
+            KeyPair keyPair = keyPairs.get(key.getKid());
+            verificationKeys.put(key.getKid(), keyPair.getPublic());
+            jwks.add(toJwk(key, keyPair));
+            if (ringAlgorithm.equals(key.getAlgorithm())) {
+                signingKeys.add(new ActiveKey(key.getKid(), key.getAlgorithm(), keyPair.getPrivate(),
+                        SIGNATURE_ALGORITHMS.get(key.getAlgorithm()), key.getActivatesAt()));
+            }
+        }
+        // Newest first, so getActiveKey() takes the latest key that has already activated
+        signingKeys.sort(Comparator.comparing(ActiveKey::activatesAt).reversed());
+
+        JWKSet signingJwkSet = new JWKSet(jwks);
+        JWKSet publicJwkSet = signingJwkSet.toPublicJWKSet();
+        String jwksJson = publicJwkSet.toString(true);
+        return new Snapshot(Map.copyOf(verificationKeys), List.copyOf(signingKeys),
+                publicJwkSet, signingJwkSet, jwksJson, TokenDigest.of(jwksJson));
+    }
+
+    private static JWK toJwk(SigningKey key, KeyPair keyPair) {
+        return switch (key.getAlgorithm()) {
+            case "RS256" -> new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                    .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                    .keyID(key.getKid())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.RS256)
+                    .build();
+            case "ES256" -> new ECKey.Builder(Curve.P_256, (ECPublicKey) keyPair.getPublic())
+                    .privateKey((ECPrivateKey) keyPair.getPrivate())
+                    .keyID(key.getKid())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.ES256)
+                    .build();
+            // Raw Ed25519 public key is the trailing 32 bytes of its X.509 encoding
+            case "EdDSA" -> {
+                byte[] encoded = keyPair.getPublic().getEncoded();
+                byte[] x = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+                yield new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x))
+                        .keyID(key.getKid())
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.EdDSA)
+                        .build();
+            }
+            default -> throw new IllegalStateException("Unsupported signing key algorithm: " + key.getAlgorithm());
+        };
+    }
+
+    private static KeyPair generateKeyPair(String algorithm) {
+        try {
+            return switch (algorithm) {
+                case "RS256" -> {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                    generator.initialize(2048);
+                    yield generator.generateKeyPair();
+                }
+                case "ES256" -> {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                    generator.initialize(new ECGenParameterSpec("secp256r1"));
+                    yield generator.generateKeyPair();
+                }
+                case "EdDSA" -> KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                default -> throw new IllegalStateException("Unsupported signing key algorithm: " + algorithm);
+            };
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate " + algorithm + " key pair", e);
+        }
+    }
+
+    private static String keyFactoryAlgorithm(String algorithm) {
+        return switch (algorithm) {
+            case "RS256" -> "RSA";
+            case "ES256" -> "EC";
+            case "EdDSA" -> "Ed25519";
+            default -> throw new IllegalArgumentException("Unsupported signing key algorithm: " + algorithm);
+        };
+    }
+
+    private String wrap(byte[] privateKey) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            new SecureRandom().nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(128, iv));
+            byte[] encrypted = cipher.doFinal(privateKey);
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length)
+                    .put(iv)
+                    .put(encrypted)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not wrap signing key", e);
+        }
+    }
+
+    private byte[] unwrap(String wrapped) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(wrapped);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(128, bytes, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(bytes, GCM_IV_LENGTH, bytes.length - GCM_IV_LENGTH);
+    }
+
+    public record ActiveKey(String kid, String algorithm, PrivateKey privateKey,
+                            SignatureAlgorithm signatureAlgorithm, LocalDateTime activatesAt) {
+    }
+
+    private record Snapshot(Map<String, PublicKey> verificationKeys, List<ActiveKey> signingKeys,
+                            JWKSet publicJwkSet, JWKSet signingJwkSet, String jwksJson, String jwksEtag) {
+    }
+}
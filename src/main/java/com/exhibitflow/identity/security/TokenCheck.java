@@ -0,0 +1,41 @@
+package com.exhibitflow.identity.security;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Result of checking a token without exceptions: a status and, when the signature and expiry
+ * checked out, the verified contents.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TokenCheck {
+
+    private static final Map<TokenStatus, TokenCheck> FAILURES = new EnumMap<>(TokenStatus.class);
+
+    static {
+        for (TokenStatus status : TokenStatus.values()) {
+            FAILURES.put(status, new TokenCheck(status, null));
+        }
+    }
+
+    TokenStatus status;
+    VerifiedToken token;
+
+    public static TokenCheck valid(VerifiedToken token) {
+        return new TokenCheck(TokenStatus.VALID, token);
+    }
+
+    /** Failures carry no token and are shared, so rejecting a token allocates nothing. */
+    public static TokenCheck failed(TokenStatus status) {
+        return FAILURES.get(status);
+    }
+
+    public boolean isValid() {
+        return status == TokenStatus.VALID;
+    }
+}
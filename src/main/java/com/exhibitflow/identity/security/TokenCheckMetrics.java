@@ -0,0 +1,31 @@
+package com.exhibitflow.identity.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts token checks by outcome ({@code jwt.token.checks{status=...}}), so rejected tokens show
+ * up as a rate per reason rather than as one log line each.
+ */
+@Component
+public class TokenCheckMetrics {
+
+    private final Map<TokenStatus, Counter> counters = new EnumMap<>(TokenStatus.class);
+
+    public TokenCheckMetrics(MeterRegistry meterRegistry) {
+        for (TokenStatus status : TokenStatus.values()) {
+            counters.put(status, Counter.builder("jwt.token.checks")
+                    .description("Bearer token checks by outcome")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void record(TokenStatus status) {
+        counters.get(status).increment();
+    }
+}
@@ -0,0 +1,24 @@
+package com.exhibitflow.identity.security;
+
+/**
+ * Outcome of checking a bearer token, from the signature through to the user it names.
+ */
+public enum TokenStatus {
+    VALID,
+    EXPIRED,
+    BAD_SIGNATURE,
+    MALFORMED,
+    /**
+     * Signed with a trusted key but not an access token issued by this service: a refresh token, or
+     * an access or ID token from the OAuth2 authorization server.
+     */
+    WRONG_TYPE,
+    /** Carries compact permissions referencing a dictionary version that was never stored. */
+    UNKNOWN_DICTIONARY_VERSION,
+    UNKNOWN_USER,
+    DISABLED,
+    /** Issued before a logout, role change or deletion recorded by {@link RevocationRegistry}. */
+    REVOKED,
+    /** The check itself failed, e.g. the user could not be loaded; the request goes on unauthenticated. */
+    ERROR
+}
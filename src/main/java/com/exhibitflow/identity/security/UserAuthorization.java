@@ -0,0 +1,29 @@
+package com.exhibitflow.identity.security;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What authentication, token issuance and introspection need to know about a user, assembled from
+ * a narrow row lookup and {@link RolePermissionIndex} instead of the {@code User} entity graph.
+ * The roles and permissions are the interned {@link AuthoritySet} shared by every user with the
+ * same role combination.
+ */
+public record UserAuthorization(UUID id,
+                                String username,
+                                String email,
+                                String password,
+                                boolean enabled,
+                                boolean accountNonExpired,
+                                boolean accountNonLocked,
+                                boolean credentialsNonExpired,
+                                AuthoritySet authorities) {
+
+    public List<String> roles() {
+        return authorities.roles();
+    }
+
+    public List<String> permissions() {
+        return authorities.permissions();
+    }
+}
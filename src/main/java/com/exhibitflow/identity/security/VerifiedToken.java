@@ -0,0 +1,27 @@
+package com.exhibitflow.identity.security;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a single signature check and parse of a JWT. Consumers read everything
+ * they need from this value instead of re-parsing the raw token.
+ */
+@Value
+@Builder
+public class VerifiedToken {
+
+    String subject;
+    Instant expiresAt;
+    Instant issuedAt;
+    List<String> authorities;
+    Map<String, Object> claims;
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+}
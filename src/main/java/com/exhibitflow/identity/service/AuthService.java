@@ -1,6 +1,7 @@
 package com.exhibitflow.identity.service;
 
 import com.exhibitflow.identity.dto.*;
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
 import com.exhibitflow.identity.exception.InvalidTokenException;
 import com.exhibitflow.identity.exception.ResourceNotFoundException;
 import com.exhibitflow.identity.exception.UserAlreadyExistsException;
@@ -10,20 +11,31 @@ import com.exhibitflow.identity.model.User;
 import com.exhibitflow.identity.repository.RefreshTokenRepository;
 import com.exhibitflow.identity.repository.RoleRepository;
 import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.security.AuthorizedUser;
+import com.exhibitflow.identity.security.CustomUserDetailsService;
+import com.exhibitflow.identity.security.TokenCheck;
+import com.exhibitflow.identity.security.TokenDigest;
+import com.exhibitflow.identity.security.TokenStatus;
 import com.exhibitflow.identity.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 // import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -33,16 +45,29 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AuthService {
 
+    private static final int OPAQUE_REFRESH_TOKEN_BYTES = 32;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final LastLoginRecorder lastLoginRecorder;
     // private final KafkaTemplate<String, Object> kafkaTemplate;
 
-    @Transactional
+    @Value("${jwt.opaque-refresh-tokens:true}")
+    private boolean opaqueRefreshTokens;
+
+    /**
+     * Checks the username and email, hashes the password without holding a connection, then inserts
+     * the user in one short transaction. A name taken between the check and the insert is caught
+     * by the unique constraints.
+     */
     public UserDto register(UserRegistrationDto registrationDto) {
         log.info("Registering new user: {}", registrationDto.getUsername());
 
@@ -54,32 +79,47 @@ public class AuthService {
             throw new UserAlreadyExistsException("Email already exists: " + registrationDto.getEmail());
         }
 
-        User user = User.builder()
-                .username(registrationDto.getUsername())
-                .email(registrationDto.getEmail())
-                .password(passwordEncoder.encode(registrationDto.getPassword()))
-                .firstName(registrationDto.getFirstName())
-                .lastName(registrationDto.getLastName())
-                .enabled(true)
-                .accountNonExpired(true)
-                .accountNonLocked(true)
-                .credentialsNonExpired(true)
-                .build();
-
-        // Assign default VIEWER role
-        Role viewerRole = roleRepository.findByName("MANAGER")
-                .orElseThrow(() -> new ResourceNotFoundException("Default manager role not found"));
-        user.addRole(viewerRole);
-
-        User savedUser = userRepository.save(user);
-        log.info("User registered successfully: {}", savedUser.getUsername());
+        String passwordHash = passwordEncoder.encode(registrationDto.getPassword());
+
+        UserDto userDto;
+        try {
+            userDto = transactionTemplate.execute(status -> {
+                User user = User.builder()
+                        .username(registrationDto.getUsername())
+                        .email(registrationDto.getEmail())
+                        .password(passwordHash)
+                        .firstName(registrationDto.getFirstName())
+                        .lastName(registrationDto.getLastName())
+                        .enabled(true)
+                        .accountNonExpired(true)
+                        .accountNonLocked(true)
+                        .credentialsNonExpired(true)
+                        .build();
+
+                // Assign the default MANAGER role on the owning side only; addRole would also load
+                // the role's users collection, which holds every existing manager
+                Role managerRole = roleRepository.findByName("MANAGER")
+                        .orElseThrow(() -> new ResourceNotFoundException("Default manager role not found"));
+                user.getRoles().add(managerRole);
+
+                return convertToUserDto(userRepository.saveAndFlush(user));
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new UserAlreadyExistsException("Username or email already exists: " + registrationDto.getUsername());
+        }
+        log.info("User registered successfully: {}", userDto.getUsername());
 
         // publishUserEvent("USER_REGISTERED", savedUser);
 
-        return convertToUserDto(savedUser);
+        return userDto;
     }
 
-    @Transactional
+    /**
+     * Runs in stages so no pooled connection is held while the password is compared: the
+     * authentication manager reads the user once in its own read-only transaction and checks the
+     * hash after it has returned, the tokens are minted from the resulting principal, and the
+     * refresh token is written in one short transaction. The last login is recorded write-behind.
+     */
     public AuthResponseDto login(LoginRequestDto loginRequest) {
         log.info("User login attempt: {}", loginRequest.getUsername());
 
@@ -90,19 +130,14 @@ public class AuthService {
                 )
         );
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String accessToken = jwtUtil.generateToken(userDetails);
-        String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+        AuthorizedUser principal = (AuthorizedUser) authentication.getPrincipal();
+        String accessToken = jwtUtil.generateToken(principal);
+        String refreshToken = newRefreshToken(principal);
 
-        // Save refresh token
-        User user = userRepository.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        saveRefreshToken(user, refreshToken);
-        
-        // Update last login
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        // Save refresh token; the last login is written behind, coalesced with other logins
+        transactionTemplate.executeWithoutResult(status ->
+                saveRefreshToken(userRepository.getReferenceById(principal.getId()), refreshToken));
+        lastLoginRecorder.record(principal.getId(), LocalDateTime.now());
 
         log.info("User logged in successfully: {}", loginRequest.getUsername());
 
@@ -116,34 +151,47 @@ public class AuthService {
                 .build();
     }
 
+    /**
+     * Rotates a refresh token. Opaque tokens are checked by their digest alone; signed JWT refresh
+     * tokens, issued before opaque tokens or with {@code jwt.opaque-refresh-tokens} off, are
+     * verified first and then looked up the same way, until they expire.
+     */
     @Transactional
     public AuthResponseDto refreshToken(RefreshTokenRequestDto request) {
         log.info("Refreshing token");
 
         String token = request.getRefreshToken();
-        
-        if (jwtUtil.isTokenExpired(token)) {
-            throw new InvalidTokenException("Refresh token is expired");
+
+        // Opaque tokens are base64url and never contain a dot
+        if (token.indexOf('.') >= 0) {
+            TokenCheck check = jwtUtil.checkRefreshToken(token);
+            if (check.getStatus() == TokenStatus.EXPIRED) {
+                throw new InvalidTokenException("Refresh token is expired");
+            }
+            if (!check.isValid()) {
+                throw new InvalidTokenException("Invalid refresh token");
+            }
         }
 
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(TokenDigest.sha256(token))
                 .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
 
         if (refreshToken.getRevoked() || refreshToken.isExpired()) {
             throw new InvalidTokenException("Refresh token is revoked or expired");
         }
 
-        String username = jwtUtil.extractUsername(token);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        User user = refreshToken.getUser();
+        String username = user.getUsername();
+        UserDetails userDetails = userDetailsService.findUserByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
         String newAccessToken = jwtUtil.generateToken(userDetails);
-        String newRefreshToken = jwtUtil.generateRefreshToken(userDetails);
+        String newRefreshToken = newRefreshToken(userDetails);
 
         // Revoke old refresh token and save new one
         refreshToken.setRevoked(true);
         refreshTokenRepository.save(refreshToken);
-        
-        User user = refreshToken.getUser();
+
         saveRefreshToken(user, newRefreshToken);
 
         log.info("Token refreshed successfully for user: {}", username);
@@ -164,22 +212,34 @@ public class AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
         refreshTokenRepository.deleteByUser(user);
-        
+
+        eventPublisher.publishEvent(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.TOKENS_REVOKED, user.getUsername()));
         // publishAuthEvent("USER_LOGOUT", user);
 
         log.info("User logged out successfully: {}", username);
     }
 
+    /** 256 random bits unless signed JWT refresh tokens are configured; either is stored only as a digest. */
+    private String newRefreshToken(UserDetails userDetails) {
+        if (!opaqueRefreshTokens) {
+            return jwtUtil.generateRefreshToken(userDetails);
+        }
+        byte[] token = new byte[OPAQUE_REFRESH_TOKEN_BYTES];
+        SECURE_RANDOM.nextBytes(token);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
     private void saveRefreshToken(User user, String token) {
-        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(jwtUtil.getExpirationTime() / 1000);
-        
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(jwtUtil.getRefreshExpirationTime() / 1000);
+
         RefreshToken refreshToken = RefreshToken.builder()
-                .token(token)
+                .tokenHash(TokenDigest.sha256(token))
                 .user(user)
                 .expiresAt(expiresAt)
                 .revoked(false)
                 .build();
-        
+
         refreshTokenRepository.save(refreshToken);
     }
 
@@ -0,0 +1,259 @@
+package com.exhibitflow.identity.service;
+
+import com.exhibitflow.identity.dto.AuthorizationChangeNotification;
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Streams committed {@link AuthorizationChangeEvent}s to server-sent event subscribers so that
+ * downstream services can cache introspection results for long periods and purge only what changed.
+ * Subscribing requires the {@value #SUBSCRIBE_AUTHORITY} permission, held by the service accounts
+ * of those downstream services.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}, where the epoch identifies this process. Recent events
+ * are kept in a ring buffer; a subscriber that reconnects with {@code Last-Event-ID} gets everything
+ * it missed. If the id is from another process or older than the buffer, or absent, the subscriber
+ * receives a {@code reset} event instead and should drop everything it has cached.
+ * <p>
+ * Nothing is written to a subscriber on the thread that committed the change. Deliveries run one
+ * at a time on a dispatcher thread, which keeps every subscriber's events in order, and each
+ * subscriber is written to on its own sender thread; a subscriber that does not take a delivery
+ * within {@code jwt.events.send-timeout} is dropped and resumes with {@code Last-Event-ID}. At most
+ * {@code jwt.events.max-subscribers} connections are accepted.
+ */
+@Service
+@Slf4j
+public class AuthorizationEventStream {
+
+    public static final String SUBSCRIBE_AUTHORITY = "authorization:subscribe";
+
+    static final String CHANGE_EVENT = "authorization-change";
+    static final String RESET_EVENT = "reset";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int bufferSize;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final Duration sendTimeout;
+    private final Deque<AuthorizationChangeNotification> buffer;
+    // Every accepted connection, counted against the limit; subscribers only once caught up
+    private final Set<SseEmitter> connections = ConcurrentHashMap.newKeySet();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher;
+    private final ExecutorService senders;
+
+    private long sequence;
+
+    public AuthorizationEventStream(@Value("${jwt.events.buffer-size:1024}") int bufferSize,
+                                    @Value("${jwt.events.timeout:PT30M}") Duration timeout,
+                                    @Value("${jwt.events.max-subscribers:64}") int maxSubscribers,
+                                    @Value("${jwt.events.send-timeout:PT5S}") Duration sendTimeout) {
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.sendTimeout = sendTimeout;
+        this.buffer = new ArrayDeque<>(bufferSize);
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "authorization-events"));
+        // One thread per subscriber at most, so a stuck subscriber never delays another
+        this.senders = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> daemon(runnable, "authorization-events-send"));
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    /** The new subscription, or empty when {@code jwt.events.max-subscribers} are already connected. */
+    public Optional<SseEmitter> subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(timeout.toMillis()));
+    }
+
+    synchronized Optional<SseEmitter> subscribe(String lastEventId, SseEmitter emitter) {
+        if (connections.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        connections.add(emitter);
+        emitter.onCompletion(() -> remove(emitter));
+        emitter.onTimeout(() -> remove(emitter));
+        emitter.onError(error -> remove(emitter));
+
+        long resumeAfter = resumePoint(lastEventId);
+        long oldest = buffer.isEmpty() ? sequence + 1 : buffer.getFirst().getSequence();
+        Delivery catchUp;
+        if (resumeAfter < 0 || resumeAfter > sequence || resumeAfter < oldest - 1) {
+            String resetId = eventId(sequence);
+            catchUp = target -> target.send(SseEmitter.event()
+                    .id(resetId)
+                    .name(RESET_EVENT)
+                    .data("{}"));
+        } else {
+            List<AuthorizationChangeNotification> missed = buffer.stream()
+                    .filter(notification -> notification.getSequence() > resumeAfter)
+                    .toList();
+            catchUp = target -> {
+                for (AuthorizationChangeNotification notification : missed) {
+                    target.send(changeEvent(notification));
+                }
+            };
+        }
+        // Queued behind the fan-out of every earlier event and ahead of every later one
+        dispatch(() -> {
+            deliver(List.of(emitter), catchUp);
+            if (connections.contains(emitter)) {
+                subscribers.add(emitter);
+            }
+        });
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAuthorizationChange(AuthorizationChangeEvent event) {
+        AuthorizationChangeNotification notification = AuthorizationChangeNotification.builder()
+                .sequence(++sequence)
+                .type(event.getType().name())
+                .usernames(event.getUsernames())
+                .roleName(event.getRoleName())
+                .occurredAt(Instant.now())
+                .build();
+        if (buffer.size() == bufferSize) {
+            buffer.removeFirst();
+        }
+        buffer.addLast(notification);
+
+        dispatch(() -> deliver(subscribers, target -> target.send(changeEvent(notification))));
+    }
+
+    /** Keeps idle connections open through proxies and detects subscribers that went away. */
+    @Scheduled(fixedDelayString = "${jwt.events.heartbeat-interval:PT30S}",
+            initialDelayString = "${jwt.events.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        dispatch(() -> deliver(subscribers, target -> target.send(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /** Number of open connections, including those still catching up. */
+    public int getSubscriberCount() {
+        return connections.size();
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("Authorization event stream is shutting down");
+        }
+    }
+
+    /** Writes to every emitter in parallel and drops those that fail or exceed the send timeout. */
+    private void deliver(Collection<SseEmitter> emitters, Delivery delivery) {
+        Map<SseEmitter, Future<?>> sends = new LinkedHashMap<>();
+        for (SseEmitter emitter : emitters) {
+            try {
+                sends.put(emitter, senders.submit(() -> {
+                    delivery.sendTo(emitter);
+                    return null;
+                }));
+            } catch (RejectedExecutionException e) {
+                drop(emitter, e);
+            }
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<SseEmitter> failed = new ArrayList<>();
+        for (Map.Entry<SseEmitter, Future<?>> send : sends.entrySet()) {
+            try {
+                send.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                send.getValue().cancel(true);
+                failed.add(send.getKey());
+            } catch (ExecutionException e) {
+                failed.add(send.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        failed.forEach(emitter -> drop(emitter, null));
+    }
+
+    private void drop(SseEmitter emitter, Throwable cause) {
+        log.debug("Dropping authorization event subscriber: {}", cause == null ? "send failed or timed out" : cause);
+        remove(emitter);
+        try {
+            emitter.complete();
+        } catch (RuntimeException e) {
+            // Already completed by the container
+        }
+    }
+
+    private void remove(SseEmitter emitter) {
+        connections.remove(emitter);
+        subscribers.remove(emitter);
+    }
+
+    private SseEmitter.SseEventBuilder changeEvent(AuthorizationChangeNotification notification) {
+        return SseEmitter.event()
+                .id(eventId(notification.getSequence()))
+                .name(CHANGE_EVENT)
+                .data(notification);
+    }
+
+    private String eventId(long eventSequence) {
+        return epoch + "-" + eventSequence;
+    }
+
+    /** Sequence to resume after, or -1 when the id is missing or from another process. */
+    private long resumePoint(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /** Writes to one emitter; event builders are single-use, so each call builds its own. */
+    @FunctionalInterface
+    private interface Delivery {
+        void sendTo(SseEmitter emitter) throws IOException;
+    }
+}
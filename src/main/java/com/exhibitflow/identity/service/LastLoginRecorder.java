@@ -0,0 +1,69 @@
+package com.exhibitflow.identity.service;
+
+import com.exhibitflow.identity.repository.LastLoginRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for {@code users.last_login}: logins record their time in memory, keeping only the
+ * latest per user, and every {@code last-login.flush-interval} the pending times are written in one
+ * batch. Pending times are flushed on graceful shutdown; a crash loses at most one interval of
+ * this purely informational field.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginRecorder {
+
+    private final LastLoginRepository lastLoginRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(UUID userId, LocalDateTime lastLogin) {
+        pending.merge(userId, lastLogin, LastLoginRecorder::latest);
+    }
+
+    @Scheduled(fixedDelayString = "${last-login.flush-interval:PT10S}",
+            initialDelayString = "${last-login.flush-interval:PT10S}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Take each entry out atomically, so a login recorded meanwhile waits for the next flush
+        Map<UUID, LocalDateTime> batch = new HashMap<>();
+        for (UUID userId : pending.keySet()) {
+            LocalDateTime lastLogin = pending.remove(userId);
+            if (lastLogin != null) {
+                batch.put(userId, lastLogin);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> lastLoginRepository.updateLastLogins(batch));
+            log.debug("Flushed last login of {} users", batch.size());
+        } catch (DataAccessException e) {
+            batch.forEach(this::record);
+            log.warn("Failed to flush last login of {} users, retrying next interval", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
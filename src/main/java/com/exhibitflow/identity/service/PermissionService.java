@@ -1,19 +1,28 @@
 package com.exhibitflow.identity.service;
 
 import com.exhibitflow.identity.dto.CreatePermissionRequest;
+import com.exhibitflow.identity.dto.CursorPage;
 import com.exhibitflow.identity.dto.PermissionResponse;
+import com.exhibitflow.identity.dto.TotalCount;
 import com.exhibitflow.identity.dto.UpdatePermissionRequest;
+import com.exhibitflow.identity.event.CatalogChangeEvent;
 import com.exhibitflow.identity.exception.ResourceNotFoundException;
 import com.exhibitflow.identity.exception.UserAlreadyExistsException;
 import com.exhibitflow.identity.model.Permission;
 import com.exhibitflow.identity.repository.PermissionRepository;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.TableStatisticsRepository;
+import com.exhibitflow.identity.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -22,6 +31,9 @@ import java.util.UUID;
 public class PermissionService {
 
     private final PermissionRepository permissionRepository;
+    private final RoleRepository roleRepository;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public PermissionResponse createPermission(CreatePermissionRequest request) {
@@ -39,6 +51,8 @@ public class PermissionService {
                 .build();
 
         Permission savedPermission = permissionRepository.save(permission);
+        eventPublisher.publishEvent(new CatalogChangeEvent(
+                CatalogChangeEvent.Type.PERMISSION_CREATED, savedPermission.getName()));
         log.info("Permission created successfully: {}", savedPermission.getName());
         return convertToPermissionResponse(savedPermission);
     }
@@ -49,6 +63,17 @@ public class PermissionService {
         return permissionRepository.findAll(pageable).map(this::convertToPermissionResponse);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<PermissionResponse> getPermissionsAfter(String cursor, int size, TotalCount count) {
+        log.info("Getting permissions after cursor");
+        int pageSize = KeysetCursor.clampSize(size);
+        List<Permission> permissions = permissionRepository.findByNameGreaterThanOrderByNameAsc(
+                KeysetCursor.decode(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(permissions, pageSize, Permission::getName,
+                page -> page.stream().map(this::convertToPermissionResponse).toList(),
+                tableStatisticsRepository.totalRows("permissions", count));
+    }
+
     @Transactional(readOnly = true)
     public PermissionResponse getPermissionById(UUID id) {
         log.info("Getting permission by id: {}", id);
@@ -87,12 +112,14 @@ public class PermissionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Permission not found with id: " + id));
 
         // Check if permission is assigned to any roles
-        if (!permission.getRoles().isEmpty()) {
-            log.warn("Cannot delete permission {} as it is assigned to {} roles", permission.getName(), permission.getRoles().size());
+        if (roleRepository.existsByPermissionsId(id)) {
+            log.warn("Cannot delete permission {} as it is assigned to roles", permission.getName());
             throw new IllegalArgumentException("Cannot delete permission assigned to roles. Please remove from roles first.");
         }
 
         permissionRepository.delete(permission);
+        eventPublisher.publishEvent(new CatalogChangeEvent(
+                CatalogChangeEvent.Type.PERMISSION_DELETED, permission.getName()));
         log.info("Permission deleted successfully: {}", permission.getName());
     }
 
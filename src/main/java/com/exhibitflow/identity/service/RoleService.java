@@ -1,20 +1,28 @@
 package com.exhibitflow.identity.service;
 
 import com.exhibitflow.identity.dto.*;
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import com.exhibitflow.identity.event.CatalogChangeEvent;
 import com.exhibitflow.identity.exception.ResourceNotFoundException;
 import com.exhibitflow.identity.exception.UserAlreadyExistsException;
 import com.exhibitflow.identity.model.Permission;
 import com.exhibitflow.identity.model.Role;
 import com.exhibitflow.identity.repository.PermissionRepository;
 import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.TableStatisticsRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -26,6 +34,9 @@ public class RoleService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final UserRepository userRepository;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public RoleResponse createRole(CreateRoleRequest request) {
@@ -41,6 +52,7 @@ public class RoleService {
                 .build();
 
         Role savedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(new CatalogChangeEvent(CatalogChangeEvent.Type.ROLE_CREATED, savedRole.getName()));
         log.info("Role created successfully: {}", savedRole.getName());
         return convertToRoleResponse(savedRole);
     }
@@ -48,7 +60,23 @@ public class RoleService {
     @Transactional(readOnly = true)
     public Page<RoleResponse> getAllRoles(Pageable pageable) {
         log.info("Getting all roles with pagination");
-        return roleRepository.findAll(pageable).map(this::convertToRoleResponse);
+        Page<Role> roles = roleRepository.findAll(pageable);
+        Map<UUID, RoleRepository.RoleMembershipCount> counts = roleRepository.findMembershipCountsByRoleId(
+                roles.map(Role::getId).getContent());
+        return roles.map(role -> convertToRoleResponse(role, counts.get(role.getId())));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<RoleResponse> getRolesAfter(String cursor, int size, TotalCount count) {
+        log.info("Getting roles after cursor");
+        int pageSize = KeysetCursor.clampSize(size);
+        List<Role> roles = roleRepository.findByNameGreaterThanOrderByNameAsc(
+                KeysetCursor.decode(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(roles, pageSize, Role::getName, page -> {
+            Map<UUID, RoleRepository.RoleMembershipCount> counts = roleRepository.findMembershipCountsByRoleId(
+                    page.stream().map(Role::getId).toList());
+            return page.stream().map(role -> convertToRoleResponse(role, counts.get(role.getId()))).toList();
+        }, tableStatisticsRepository.totalRows("roles", count));
     }
 
     @Transactional(readOnly = true)
@@ -99,12 +127,13 @@ public class RoleService {
         }
 
         // Check if role has users
-        if (!role.getUsers().isEmpty()) {
-            log.warn("Cannot delete role {} as it has {} associated users", role.getName(), role.getUsers().size());
+        if (userRepository.existsByRolesId(id)) {
+            log.warn("Cannot delete role {} as it has associated users", role.getName());
             throw new IllegalArgumentException("Cannot delete role with existing users. Please reassign users first.");
         }
 
         roleRepository.delete(role);
+        eventPublisher.publishEvent(new CatalogChangeEvent(CatalogChangeEvent.Type.ROLE_DELETED, role.getName()));
         log.info("Role deleted successfully: {}", role.getName());
     }
 
@@ -114,15 +143,24 @@ public class RoleService {
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + roleId));
 
-        Set<Permission> permissions = request.getPermissionIds().stream()
-                .map(permissionId -> permissionRepository.findById(permissionId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Permission not found with id: " + permissionId)))
-                .collect(Collectors.toSet());
+        List<Permission> permissions = permissionRepository.findAllById(request.getPermissionIds());
+        if (permissions.size() < request.getPermissionIds().size()) {
+            Set<UUID> found = permissions.stream().map(Permission::getId).collect(Collectors.toSet());
+            UUID missing = request.getPermissionIds().stream()
+                    .filter(permissionId -> !found.contains(permissionId))
+                    .findFirst()
+                    .orElseThrow();
+            throw new ResourceNotFoundException("Permission not found with id: " + missing);
+        }
 
         // Add all permissions to the role
         permissions.forEach(role::addPermission);
 
         Role updatedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(new CatalogChangeEvent(
+                CatalogChangeEvent.Type.ROLE_PERMISSIONS_CHANGED, role.getName()));
+        eventPublisher.publishEvent(AuthorizationChangeEvent.forRole(
+                AuthorizationChangeEvent.Type.ROLE_PERMISSIONS_CHANGED, role.getName()));
         log.info("Permissions assigned successfully to role: {}", updatedRole.getName());
         return convertToRoleResponse(updatedRole);
     }
@@ -139,6 +177,10 @@ public class RoleService {
         role.removePermission(permission);
 
         Role updatedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(new CatalogChangeEvent(
+                CatalogChangeEvent.Type.ROLE_PERMISSIONS_CHANGED, role.getName()));
+        eventPublisher.publishEvent(AuthorizationChangeEvent.forRole(
+                AuthorizationChangeEvent.Type.ROLE_PERMISSIONS_CHANGED, role.getName()));
         log.info("Permission removed successfully from role: {}", updatedRole.getName());
         return convertToRoleResponse(updatedRole);
     }
@@ -155,12 +197,17 @@ public class RoleService {
     }
 
     private RoleResponse convertToRoleResponse(Role role) {
+        return convertToRoleResponse(role,
+                roleRepository.findMembershipCountsByRoleId(List.of(role.getId())).get(role.getId()));
+    }
+
+    private RoleResponse convertToRoleResponse(Role role, RoleRepository.RoleMembershipCount counts) {
         return RoleResponse.builder()
                 .id(role.getId())
                 .name(role.getName())
                 .description(role.getDescription())
-                .permissionCount(role.getPermissions().size())
-                .userCount(role.getUsers().size())
+                .permissionCount(counts != null ? (int) counts.getPermissionCount() : 0)
+                .userCount(counts != null ? (int) counts.getUserCount() : 0)
                 .createdAt(role.getCreatedAt())
                 .updatedAt(role.getUpdatedAt())
                 .build();
@@ -1,18 +1,27 @@
 package com.exhibitflow.identity.service;
 
 import com.exhibitflow.identity.dto.TokenIntrospectionResponse;
-import com.exhibitflow.identity.model.User;
-import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.repository.UserAuthorizationRepository;
+import com.exhibitflow.identity.security.IntrospectionCache;
+import com.exhibitflow.identity.security.RolePermissionIndex;
+import com.exhibitflow.identity.security.TokenCheck;
+import com.exhibitflow.identity.security.TokenCheckMetrics;
+import com.exhibitflow.identity.security.TokenDigest;
+import com.exhibitflow.identity.security.TokenStatus;
+import com.exhibitflow.identity.security.UserAuthorization;
+import com.exhibitflow.identity.security.VerifiedToken;
 import com.exhibitflow.identity.util.JwtUtil;
-import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,77 +30,149 @@ import java.util.stream.Collectors;
 public class TokenIntrospectionService {
 
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final UserAuthorizationRepository userAuthorizationRepository;
+    private final IntrospectionCache introspectionCache;
+    private final TokenCheckMetrics tokenCheckMetrics;
+    private final RolePermissionIndex rolePermissionIndex;
 
-    @Transactional(readOnly = true)
+    @Value("${jwt.introspection.batch-max-size:100}")
+    private int batchMaxSize;
+
+    // No surrounding transaction: a cache hit must not borrow a connection, and the lookups only
+    // read plain columns
     public TokenIntrospectionResponse introspectToken(String token) {
-        try {
-            // Validate token expiration
-            if (jwtUtil.isTokenExpired(token)) {
-                log.debug("Token is expired");
-                return TokenIntrospectionResponse.builder()
-                        .active(false)
-                        .build();
-            }
+        String tokenDigest = TokenDigest.of(token);
+        TokenIntrospectionResponse cached = introspectionCache.get(tokenDigest);
+        if (cached != null) {
+            return cached;
+        }
 
-            // Extract username and claims
-            String username = jwtUtil.extractUsername(token);
-            Claims claims = jwtUtil.extractAllClaims(token);
+        // Read before the user is, so a result loaded before a concurrent eviction is not stored
+        long generation = introspectionCache.generation();
 
-            // Fetch user details
-            User user = userRepository.findByUsernameWithRolesAndPermissions(username)
-                    .orElse(null);
+        // Verify signature and expiration, then read subject and timestamps from the result
+        VerifiedToken verifiedToken = verifyQuietly(token);
+        if (verifiedToken == null) {
+            TokenIntrospectionResponse response = inactive();
+            introspectionCache.put(tokenDigest, null, response, generation);
+            return response;
+        }
 
-            if (user == null || !user.getEnabled()) {
-                log.debug("User not found or disabled: {}", username);
-                return TokenIntrospectionResponse.builder()
-                        .active(false)
-                        .build();
-            }
+        try {
+            String username = verifiedToken.getSubject();
 
-            // Extract role names
-            List<String> roles = user.getRoles().stream()
-                    .map(role -> role.getName())
-                    .collect(Collectors.toList());
-
-            // Extract permissions
-            Set<String> permissionsSet = user.getRoles().stream()
-                    .flatMap(role -> role.getPermissions().stream())
-                    .map(permission -> permission.getName())
-                    .collect(Collectors.toSet());
-
-            return TokenIntrospectionResponse.builder()
-                    .active(true)
-                    .username(username)
-                    .sub(username)
-                    .clientId("identity-service")
-                    .exp(claims.getExpiration().getTime() / 1000)
-                    .iat(claims.getIssuedAt().getTime() / 1000)
-                    .roles(roles)
-                    .permissions(new ArrayList<>(permissionsSet))
-                    .build();
+            // Fetch user details; role IDs are expanded to permissions in memory
+            UserAuthorization user = userAuthorizationRepository.findByUsername(username)
+                    .map(rolePermissionIndex::expand)
+                    .orElse(null);
+
+            TokenIntrospectionResponse response = toResponse(verifiedToken, user);
+            introspectionCache.put(tokenDigest, username, response, generation);
+            return response;
 
         } catch (Exception e) {
             log.error("Error introspecting token", e);
-            return TokenIntrospectionResponse.builder()
-                    .active(false)
-                    .build();
+            return inactive();
         }
     }
 
-    public boolean validateToken(String token) {
-        try {
-            if (jwtUtil.isTokenExpired(token)) {
-                return false;
+    /**
+     * Introspects each token in order. Cached results are reused; every other token is verified
+     * once and the users behind all distinct subjects are loaded in a single query. A null or
+     * unusable element is reported as inactive in its position without failing the batch.
+     */
+    public List<TokenIntrospectionResponse> introspectTokens(List<String> tokens) {
+        if (tokens.size() > batchMaxSize) {
+            throw new IllegalArgumentException("Cannot introspect more than " + batchMaxSize + " tokens per request");
+        }
+
+        long generation = introspectionCache.generation();
+        TokenIntrospectionResponse[] responses = new TokenIntrospectionResponse[tokens.size()];
+        String[] tokenDigests = new String[tokens.size()];
+        VerifiedToken[] verifiedTokens = new VerifiedToken[tokens.size()];
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i) == null) {
+                tokenCheckMetrics.record(TokenStatus.MALFORMED);
+                responses[i] = inactive();
+                continue;
+            }
+            tokenDigests[i] = TokenDigest.of(tokens.get(i));
+            responses[i] = introspectionCache.get(tokenDigests[i]);
+            if (responses[i] != null) {
+                continue;
             }
+            verifiedTokens[i] = verifyQuietly(tokens.get(i));
+            if (verifiedTokens[i] == null) {
+                responses[i] = inactive();
+                introspectionCache.put(tokenDigests[i], null, responses[i], generation);
+            } else if (verifiedTokens[i].getSubject() != null) {
+                usernames.add(verifiedTokens[i].getSubject());
+            }
+        }
 
-            String username = jwtUtil.extractUsername(token);
-            User user = userRepository.findByUsername(username).orElse(null);
+        Map<String, UserAuthorization> users = userAuthorizationRepository.findAllByUsernameIn(usernames).stream()
+                .map(rolePermissionIndex::expand)
+                .collect(Collectors.toMap(UserAuthorization::username, Function.identity()));
 
-            return user != null && user.getEnabled();
-        } catch (Exception e) {
-            log.error("Error validating token", e);
-            return false;
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i] == null) {
+                String username = verifiedTokens[i].getSubject();
+                responses[i] = toResponse(verifiedTokens[i], users.get(username));
+                introspectionCache.put(tokenDigests[i], username, responses[i], generation);
+            }
+        }
+        return Arrays.asList(responses);
+    }
+
+    private VerifiedToken verifyQuietly(String token) {
+        TokenCheck check = jwtUtil.check(token);
+        if (!check.isValid()) {
+            // Routine for expired or foreign tokens; counted per reason instead of logged
+            tokenCheckMetrics.record(check.getStatus());
+            return null;
+        }
+        return check.getToken();
+    }
+
+    private TokenIntrospectionResponse toResponse(VerifiedToken verifiedToken, UserAuthorization user) {
+        String username = verifiedToken.getSubject();
+        if (verifiedToken.getExpiresAt() == null || verifiedToken.getIssuedAt() == null) {
+            // Signed by us but not an access token we issue; RFC 7662 needs both timestamps
+            tokenCheckMetrics.record(TokenStatus.MALFORMED);
+            return inactive();
         }
+        if (user == null) {
+            tokenCheckMetrics.record(TokenStatus.UNKNOWN_USER);
+            return inactive();
+        }
+        if (!user.enabled()) {
+            tokenCheckMetrics.record(TokenStatus.DISABLED);
+            return inactive();
+        }
+        tokenCheckMetrics.record(TokenStatus.VALID);
+
+        return TokenIntrospectionResponse.builder()
+                .active(true)
+                .username(username)
+                .sub(username)
+                .clientId("identity-service")
+                .exp(verifiedToken.getExpiresAt().getEpochSecond())
+                .iat(verifiedToken.getIssuedAt().getEpochSecond())
+                // Shared, immutable lists of the user's role combination
+                .roles(user.roles())
+                .permissions(user.permissions())
+                .build();
+    }
+
+    private static TokenIntrospectionResponse inactive() {
+        return TokenIntrospectionResponse.builder()
+                .active(false)
+                .build();
+    }
+
+    public boolean validateToken(String token) {
+        // Same answer as introspection (verified and user enabled), so share its cache
+        return Boolean.TRUE.equals(introspectToken(token).getActive());
     }
 }
@@ -0,0 +1,345 @@
+package com.exhibitflow.identity.service;
+
+import com.exhibitflow.identity.dto.AdminUserCreationRequest;
+import com.exhibitflow.identity.dto.UserImportError;
+import com.exhibitflow.identity.dto.UserImportResult;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserImportRepository;
+import com.exhibitflow.identity.repository.UserImportRepository.ImportedUser;
+import com.exhibitflow.identity.security.PooledPasswordEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Creates users in bulk from a streamed NDJSON or CSV body. Rows are read and processed in chunks:
+ * each chunk is validated, checked for taken usernames and emails with set-based queries, hashed
+ * in parallel on the password hashing pool and written with JDBC batch inserts in its own transaction.
+ * A bad row is reported with its line number and skipped; it never aborts the rest of the import.
+ * <p>
+ * NDJSON lines are {@link AdminUserCreationRequest} objects. CSV input starts with a header naming
+ * the same fields; {@code roleIds} are separated by {@code ;} and quoted fields may not span lines.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final Set<String> CSV_COLUMNS =
+            Set.of("username", "email", "password", "firstname", "lastname", "roleids", "enabled");
+
+    private final UserImportRepository userImportRepository;
+    private final RoleRepository roleRepository;
+    private final PooledPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${user-import.batch-size:500}")
+    private int batchSize;
+
+    public UserImportResult importUsers(InputStream input, Format format) throws IOException {
+        log.info("Importing users from {}", format);
+        Import run = new Import(new HashSet<>(roleRepository.findAllIds()));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = format == Format.CSV ? csvHeader(reader) : null;
+            int lineNumber = header != null ? 1 : 0;
+            List<Row> chunk = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.received++;
+                Row row = format == Format.CSV ? parseCsv(lineNumber, header, line) : parseJson(lineNumber, line);
+                if (row.request() == null) {
+                    run.reject(row, row.error());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    importChunk(run, chunk);
+                    chunk.clear();
+                }
+            }
+            importChunk(run, chunk);
+        }
+        // Chunks record their rejections after the parse errors of later lines; report in line order
+        run.errors.sort(Comparator.comparingInt(UserImportError::getLine));
+        log.info("Imported {} of {} users, {} rejected", run.created, run.received, run.errors.size());
+        return UserImportResult.builder()
+                .received(run.received)
+                .created(run.created)
+                .failed(run.errors.size())
+                .errors(run.errors)
+                .build();
+    }
+
+    private void importChunk(Import run, List<Row> chunk) {
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String error = validate(run, row.request());
+            if (error != null) {
+                run.reject(row, error);
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Set<String> takenUsernames = userImportRepository.findExistingUsernames(
+                candidates.stream().map(row -> row.request().getUsername()).toList());
+        Set<String> takenEmails = userImportRepository.findExistingEmails(
+                candidates.stream().map(row -> row.request().getEmail()).toList());
+        List<Row> accepted = new ArrayList<>(candidates.size());
+        for (Row row : candidates) {
+            if (takenUsernames.contains(row.request().getUsername())) {
+                run.reject(row, "Username already exists");
+            } else if (takenEmails.contains(row.request().getEmail())) {
+                run.reject(row, "Email already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        // Hashing dominates the cost of an import, so it runs on every hashing thread rather than this
+        // one; as bulk work it waits for logins instead of crowding them out of the queue
+        List<CompletableFuture<ImportedUser>> hashing = accepted.stream()
+                .map(row -> passwordEncoder.encodeInBulk(row.request().getPassword())
+                        .thenApply(hash -> toImportedUser(row.request(), hash)))
+                .toList();
+        List<ImportedUser> users = hashing.stream().map(CompletableFuture::join).toList();
+        if (users.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(users));
+            run.created += users.size();
+        } catch (DataIntegrityViolationException e) {
+            // Someone else took a username or email after the pre-check; find the row one by one
+            log.debug("Batch insert conflicted, retrying {} users individually", users.size());
+            for (int i = 0; i < users.size(); i++) {
+                ImportedUser user = users.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(List.of(user)));
+                    run.created++;
+                } catch (DataIntegrityViolationException conflict) {
+                    run.reject(accepted.get(i), conflictOf(user, conflict));
+                }
+            }
+        }
+    }
+
+    /** Names what a single-row insert collided with, by checking each constraint it can break. */
+    private String conflictOf(ImportedUser user, DataIntegrityViolationException conflict) {
+        if (!userImportRepository.findExistingUsernames(List.of(user.username())).isEmpty()) {
+            return "Username already exists";
+        }
+        if (!userImportRepository.findExistingEmails(List.of(user.email())).isEmpty()) {
+            return "Email already exists";
+        }
+        Set<UUID> roleIds = new HashSet<>(roleRepository.findAllIds());
+        for (UUID roleId : user.roleIds()) {
+            if (!roleIds.contains(roleId)) {
+                // Deleted while the import was running
+                return "Role not found with id: " + roleId;
+            }
+        }
+        log.warn("Import of user {} violated a constraint", user.username(), conflict);
+        return "Rejected by the database: " + conflict.getMostSpecificCause().getMessage();
+    }
+
+    private String validate(Import run, AdminUserCreationRequest request) {
+        Set<ConstraintViolation<AdminUserCreationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.getRoleIds() != null) {
+            for (UUID roleId : request.getRoleIds()) {
+                if (!run.knownRoleIds.contains(roleId)) {
+                    return "Role not found with id: " + roleId;
+                }
+            }
+        }
+        if (run.usernames.contains(request.getUsername())) {
+            return "Duplicate username in import";
+        }
+        if (!run.emails.add(request.getEmail())) {
+            return "Duplicate email in import";
+        }
+        run.usernames.add(request.getUsername());
+        return null;
+    }
+
+    private ImportedUser toImportedUser(AdminUserCreationRequest request, String passwordHash) {
+        return new ImportedUser(
+                UUID.randomUUID(),
+                request.getUsername(),
+                request.getEmail(),
+                passwordHash,
+                request.getFirstName(),
+                request.getLastName(),
+                request.getEnabled() == null || request.getEnabled(),
+                request.getRoleIds() != null ? request.getRoleIds() : Set.of());
+    }
+
+    private Row parseJson(int lineNumber, String line) {
+        try {
+            AdminUserCreationRequest request = objectMapper.readValue(line, AdminUserCreationRequest.class);
+            if (request == null) {
+                // A JSON null literal
+                return Row.failed(lineNumber, null, "Expected a JSON object");
+            }
+            return Row.of(lineNumber, request);
+        } catch (JsonProcessingException e) {
+            return Row.failed(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private List<String> csvHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return List.of();
+        }
+        List<String> header = splitCsv(line).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        for (String column : header) {
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + column);
+            }
+        }
+        return header;
+    }
+
+    private Row parseCsv(int lineNumber, List<String> header, String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() != header.size()) {
+            return Row.failed(lineNumber, null,
+                    "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i).isEmpty() ? null : values.get(i));
+        }
+        AdminUserCreationRequest request = AdminUserCreationRequest.builder()
+                .username(fields.get("username"))
+                .email(fields.get("email"))
+                .password(fields.get("password"))
+                .firstName(fields.get("firstname"))
+                .lastName(fields.get("lastname"))
+                .enabled(fields.get("enabled") == null || Boolean.parseBoolean(fields.get("enabled").trim()))
+                .build();
+        String roleIds = fields.get("roleids");
+        if (roleIds != null) {
+            try {
+                Set<UUID> ids = new LinkedHashSet<>();
+                for (String roleId : roleIds.split(";")) {
+                    if (!roleId.isBlank()) {
+                        ids.add(UUID.fromString(roleId.trim()));
+                    }
+                }
+                request.setRoleIds(ids);
+            } catch (IllegalArgumentException e) {
+                return Row.failed(lineNumber, request.getUsername(), "Invalid role id in: " + roleIds);
+            }
+        }
+        return Row.of(lineNumber, request);
+    }
+
+    /** Splits one CSV record; quoted fields may contain commas and doubled quotes. */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private record Row(int line, String username, AdminUserCreationRequest request, String error) {
+
+        static Row of(int line, AdminUserCreationRequest request) {
+            return new Row(line, request.getUsername(), request, null);
+        }
+
+        static Row failed(int line, String username, String error) {
+            return new Row(line, username, null, error);
+        }
+    }
+
+    /** Progress of one import; only touched by the request thread. */
+    private static final class Import {
+
+        private final Set<UUID> knownRoleIds;
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private final List<UserImportError> errors = new ArrayList<>();
+        private int received;
+        private int created;
+
+        Import(Set<UUID> knownRoleIds) {
+            this.knownRoleIds = knownRoleIds;
+        }
+
+        void reject(Row row, String message) {
+            errors.add(new UserImportError(row.line(), row.username(), message));
+        }
+    }
+}
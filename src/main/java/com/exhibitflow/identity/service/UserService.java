@@ -2,17 +2,28 @@ package com.exhibitflow.identity.service;
 
 import com.exhibitflow.identity.dto.AdminUserCreationRequest;
 import com.exhibitflow.identity.dto.AssignRolesRequest;
+import com.exhibitflow.identity.dto.BulkRoleChangeRequest;
+import com.exhibitflow.identity.dto.BulkRoleChangeResponse;
+import com.exhibitflow.identity.dto.CursorPage;
 import com.exhibitflow.identity.dto.RoleResponse;
+import com.exhibitflow.identity.dto.TotalCount;
 import com.exhibitflow.identity.dto.UserDto;
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
 import com.exhibitflow.identity.exception.ResourceNotFoundException;
 import com.exhibitflow.identity.exception.UserAlreadyExistsException;
 import com.exhibitflow.identity.model.Permission;
 import com.exhibitflow.identity.model.Role;
 import com.exhibitflow.identity.model.User;
 import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.TableStatisticsRepository;
 import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.repository.UserRoleRepository;
+import com.exhibitflow.identity.repository.UserSearchRepository;
+import com.exhibitflow.identity.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,8 +32,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,7 +47,11 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final UserSearchRepository userSearchRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public UserDto getUserById(UUID id) {
@@ -56,12 +75,41 @@ public class UserService {
         return userRepository.findAll(pageable).map(this::convertToUserDto);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> getUsersAfter(String cursor, int size, TotalCount count) {
+        log.info("Getting users after cursor");
+        int pageSize = KeysetCursor.clampSize(size);
+        List<User> users = userRepository.findByUsernameGreaterThanOrderByUsernameAsc(
+                KeysetCursor.decode(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(users, pageSize, User::getUsername,
+                page -> page.stream().map(this::convertToUserDto).toList(),
+                tableStatisticsRepository.totalRows("users", count));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> searchUsers(String query, String cursor, int size) {
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.length() < 3) {
+            throw new IllegalArgumentException("Search query must be at least 3 characters");
+        }
+        log.info("Searching users for: {}", normalized);
+        int pageSize = KeysetCursor.clampSize(size);
+        List<UUID> ids = userSearchRepository.search(normalized, KeysetCursor.decode(cursor), pageSize + 1);
+        Map<UUID, User> usersById = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> users = ids.stream().map(usersById::get).filter(Objects::nonNull).toList();
+        return CursorPage.of(users, pageSize, User::getUsername,
+                page -> page.stream().map(this::convertToUserDto).toList(), null);
+    }
+
     @Transactional
     public void deleteUser(UUID id) {
         log.info("Deleting user with id: {}", id);
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         userRepository.delete(user);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_DELETED, user.getUsername()));
         log.info("User deleted successfully: {}", user.getUsername());
     }
 
@@ -72,6 +120,9 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         user.setEnabled(enabled);
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.forUser(
+                enabled ? AuthorizationChangeEvent.Type.USER_ENABLED : AuthorizationChangeEvent.Type.USER_DISABLED,
+                user.getUsername()));
         log.info("User status updated successfully: {}", user.getUsername());
         return convertToUserDto(updatedUser);
     }
@@ -101,13 +152,14 @@ public class UserService {
                 .roles(new HashSet<>())
                 .build();
 
-        // Assign roles if provided
+        // Assign roles if provided, on the owning side only: addRole would also load each role's
+        // users collection, which holds every existing holder of the role
         if (request.getRoleIds() != null && !request.getRoleIds().isEmpty()) {
             Set<Role> roles = request.getRoleIds().stream()
                     .map(roleId -> roleRepository.findById(roleId)
                             .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + roleId)))
                     .collect(Collectors.toSet());
-            roles.forEach(user::addRole);
+            user.getRoles().addAll(roles);
         }
 
         User savedUser = userRepository.save(user);
@@ -121,14 +173,12 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        Set<Role> roles = request.getRoleIds().stream()
-                .map(roleId -> roleRepository.findById(roleId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + roleId)))
-                .collect(Collectors.toSet());
-
-        roles.forEach(user::addRole);
+        // Owning side only, as in createUserByAdmin
+        user.getRoles().addAll(findRoles(request.getRoleIds()));
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_ROLES_CHANGED, user.getUsername()));
         log.info("Roles assigned successfully to user: {}", updatedUser.getUsername());
         return convertToUserDto(updatedUser);
     }
@@ -147,21 +197,85 @@ public class UserService {
             throw new IllegalArgumentException("Cannot remove ADMIN role from user. This must be done by another admin.");
         }
 
-        user.removeRole(role);
+        // Owning side only, as in createUserByAdmin
+        user.getRoles().remove(role);
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_ROLES_CHANGED, user.getUsername()));
         log.info("Role removed successfully from user: {}", updatedUser.getUsername());
         return convertToUserDto(updatedUser);
     }
 
+    @Transactional
+    public BulkRoleChangeResponse grantRolesInBulk(BulkRoleChangeRequest request) {
+        log.info("Granting roles {} in bulk", request.getRoleIds());
+        return changeRolesInBulk(request, true);
+    }
+
+    @Transactional
+    public BulkRoleChangeResponse revokeRolesInBulk(BulkRoleChangeRequest request) {
+        log.info("Revoking roles {} in bulk", request.getRoleIds());
+        return changeRolesInBulk(request, false);
+    }
+
+    private BulkRoleChangeResponse changeRolesInBulk(BulkRoleChangeRequest request, boolean grant) {
+        boolean byUserIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        if (byUserIds == (request.getHoldersOfRoleId() != null)) {
+            throw new IllegalArgumentException("Select users either by userIds or by holdersOfRoleId");
+        }
+        List<Role> roles = findRoles(request.getRoleIds());
+        if (!grant && roles.stream().anyMatch(role -> "ADMIN".equals(role.getName()))) {
+            throw new IllegalArgumentException("Cannot remove ADMIN role from users. This must be done by another admin.");
+        }
+
+        int changed;
+        AuthorizationChangeEvent event;
+        if (byUserIds) {
+            changed = grant
+                    ? userRoleRepository.grantToUsers(request.getUserIds(), request.getRoleIds())
+                    : userRoleRepository.revokeFromUsers(request.getUserIds(), request.getRoleIds());
+            event = AuthorizationChangeEvent.forUsers(AuthorizationChangeEvent.Type.USER_ROLES_CHANGED,
+                    userRoleRepository.findUsernames(request.getUserIds()));
+        } else {
+            Role holdersOf = roleRepository.findById(request.getHoldersOfRoleId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Role not found with id: " + request.getHoldersOfRoleId()));
+            // Evicts and revokes everything derived for the holders with one role-level event
+            event = AuthorizationChangeEvent.forRole(AuthorizationChangeEvent.Type.ROLE_MEMBERSHIP_CHANGED,
+                    holdersOf.getName());
+            changed = grant
+                    ? userRoleRepository.grantToHolders(holdersOf.getId(), request.getRoleIds())
+                    : userRoleRepository.revokeFromHolders(holdersOf.getId(), request.getRoleIds());
+        }
+
+        if (changed > 0) {
+            eventPublisher.publishEvent(event);
+        }
+        log.info("{} {} role assignments in bulk", grant ? "Granted" : "Revoked", changed);
+        return BulkRoleChangeResponse.builder().assignmentsChanged(changed).build();
+    }
+
+    private List<Role> findRoles(Set<UUID> roleIds) {
+        List<Role> roles = roleRepository.findAllById(roleIds);
+        if (roles.size() < roleIds.size()) {
+            Set<UUID> found = roles.stream().map(Role::getId).collect(Collectors.toSet());
+            UUID missing = roleIds.stream().filter(roleId -> !found.contains(roleId)).findFirst().orElseThrow();
+            throw new ResourceNotFoundException("Role not found with id: " + missing);
+        }
+        return roles;
+    }
+
     @Transactional(readOnly = true)
     public List<RoleResponse> getUserRoles(UUID userId) {
         log.info("Getting roles for user with id: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
+        Map<UUID, RoleRepository.RoleMembershipCount> counts = roleRepository.findMembershipCountsByRoleId(
+                user.getRoles().stream().map(Role::getId).toList());
         return user.getRoles().stream()
-                .map(this::convertToRoleResponse)
+                .map(role -> convertToRoleResponse(role, counts.get(role.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -185,13 +299,13 @@ public class UserService {
                 .build();
     }
 
-    private RoleResponse convertToRoleResponse(Role role) {
+    private RoleResponse convertToRoleResponse(Role role, RoleRepository.RoleMembershipCount counts) {
         return RoleResponse.builder()
                 .id(role.getId())
                 .name(role.getName())
                 .description(role.getDescription())
-                .permissionCount(role.getPermissions().size())
-                .userCount(role.getUsers().size())
+                .permissionCount(counts != null ? (int) counts.getPermissionCount() : 0)
+                .userCount(counts != null ? (int) counts.getUserCount() : 0)
                 .createdAt(role.getCreatedAt())
                 .updatedAt(role.getUpdatedAt())
                 .build();
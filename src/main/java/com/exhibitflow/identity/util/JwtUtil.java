@@ -1,10 +1,20 @@
 package com.exhibitflow.identity.util;
 
-import com.exhibitflow.identity.model.User;
-import com.exhibitflow.identity.repository.UserRepository;
-import io.jsonwebtoken.*;
+import com.exhibitflow.identity.repository.UserAuthorizationRepository;
+import com.exhibitflow.identity.security.AuthorizedUser;
+import com.exhibitflow.identity.security.JwtMinter;
+import com.exhibitflow.identity.security.JwtVerifier;
+import com.exhibitflow.identity.security.PermissionDictionary;
+import com.exhibitflow.identity.security.RolePermissionIndex;
+import com.exhibitflow.identity.security.SigningKeyRing;
+import com.exhibitflow.identity.security.TokenCheck;
+import com.exhibitflow.identity.security.TokenStatus;
+import com.exhibitflow.identity.security.UserAuthorization;
+import com.exhibitflow.identity.security.VerifiedToken;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -13,14 +23,22 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtUtil {
 
-    private final UserRepository userRepository;
+    static final String PERMISSION_VERSION_CLAIM = "perm_ver";
+    static final String PERMISSION_BITS_CLAIM = "perm_bits";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private final UserAuthorizationRepository userAuthorizationRepository;
+    private final SigningKeyRing signingKeyRing;
+    private final PermissionDictionary permissionDictionary;
+    private final RolePermissionIndex rolePermissionIndex;
 
     @Value("${jwt.secret}")
     private String secret;
@@ -40,11 +58,35 @@ public class JwtUtil {
     @Value("${jwt.include-user-details:true}")
     private Boolean includeUserDetails;
 
+    /**
+     * Writes roles once and permissions as a bitset over {@link PermissionDictionary} instead of
+     * listing every name in both {@code authorities} and {@code permissions}.
+     */
+    @Value("${jwt.compact-permissions:false}")
+    private Boolean compactPermissions;
+
     @Value("${server.servlet.context-path:/api/v1}")
     private String issuer;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final JwtMinter jwtMinter = new JwtMinter();
+
+    private JwtMinter.SigningKey hmacSigningKey;
+
+    // Rebuilt only when the key ring rotates to a new active key
+    private volatile JwtMinter.SigningKey asymmetricSigningKey;
+
+    private JwtVerifier jwtVerifier;
+
+    @PostConstruct
+    void init() {
+        // Key derivation is not free; do it once, the minter and verifier are thread-safe
+        SecretKey hmacKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        hmacSigningKey = JwtMinter.SigningKey.hmac(hmacKey);
+
+        // Tokens from the key ring carry a kid; tokens signed with the shared secret do not. HMAC
+        // tokens are still accepted after switching to an asymmetric algorithm so that tokens
+        // issued before the switch stay valid until they expire.
+        jwtVerifier = new JwtVerifier(hmacSigningKey, kid -> signingKeyRing.findVerificationKey(kid));
     }
 
     public String generateToken(Authentication authentication) {
@@ -53,112 +95,183 @@ public class JwtUtil {
     }
 
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = buildClaims(userDetails.getUsername());
-        return createToken(claims, userDetails.getUsername(), expiration);
-    }
-
-    private Map<String, Object> buildClaims(String username) {
-        Map<String, Object> claims = new HashMap<>();
-        
-        // Fetch user with roles and permissions
-        Optional<User> userOptional = userRepository.findByUsernameWithRolesAndPermissions(username);
-        
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            
-            // Add user ID and details
-            if (includeUserDetails) {
-                claims.put("userId", user.getId().toString());
-                claims.put("username", user.getUsername());
-                claims.put("email", user.getEmail());
-            }
-            
-            // Extract role names (without ROLE_ prefix)
-            List<String> roleNames = user.getRoles().stream()
-                    .map(role -> role.getName())
-                    .collect(Collectors.toList());
-            
-            // Add roles array
-            if (includeRoles) {
-                claims.put("roles", roleNames);
-            }
-            
-            // Build authorities list (ROLE_ prefixed roles + permissions)
-            List<String> authorities = new ArrayList<>();
-            
-            // Add ROLE_ prefixed roles
-            roleNames.forEach(roleName -> authorities.add("ROLE_" + roleName));
-            
-            // Extract and add permissions
-            Set<String> permissions = user.getRoles().stream()
-                    .flatMap(role -> role.getPermissions().stream())
-                    .map(permission -> permission.getName())
-                    .collect(Collectors.toSet());
-            
-            authorities.addAll(permissions);
-            
-            claims.put("authorities", authorities);
-            
-            // Add permissions array separately
-            if (includePermissions) {
-                claims.put("permissions", new ArrayList<>(permissions));
+        String username = userDetails.getUsername();
+
+        // A principal from CustomUserDetailsService was read moments ago; anything else is read by
+        // role IDs and expanded to roles and permissions in memory
+        Optional<UserAuthorization> user = userDetails instanceof AuthorizedUser principal
+                ? Optional.of(principal.toAuthorization())
+                : userAuthorizationRepository.findByUsername(username).map(rolePermissionIndex::expand);
+
+        return jwtMinter.mint(currentSigningKey(), claims -> {
+            writeRegisteredClaims(claims, username, expiration);
+            user.ifPresent(value -> writeUserClaims(claims, value));
+        });
+    }
+
+    private void writeUserClaims(JwtMinter.Claims claims, UserAuthorization user) {
+        // Add user ID and details
+        if (includeUserDetails) {
+            claims.string("userId", user.id().toString())
+                    .string("username", user.username())
+                    .string("email", user.email());
+        }
+
+        List<String> permissions = user.permissions();
+
+        // Compact format: roles once, permissions by dictionary index; authorities are derived on verify
+        if (compactPermissions) {
+            Optional<PermissionDictionary.Encoded> encoded = permissionDictionary.encode(permissions);
+            if (encoded.isPresent()) {
+                writeRoles(claims, user);
+                claims.string(PERMISSION_VERSION_CLAIM, encoded.get().version())
+                        .string(PERMISSION_BITS_CLAIM, encoded.get().bits());
+                return;
             }
         }
-        
-        return claims;
+
+        // Add roles array (names without ROLE_ prefix)
+        if (includeRoles) {
+            writeRoles(claims, user);
+        }
+
+        // Authorities: ROLE_ prefixed roles followed by permissions
+        claims.beginArray("authorities");
+        for (String role : user.roles()) {
+            claims.element("ROLE_", role);
+        }
+        for (String permission : permissions) {
+            claims.element(permission);
+        }
+        claims.endArray();
+
+        // Add permissions array separately
+        if (includePermissions) {
+            claims.array("permissions", permissions);
+        }
+    }
+
+    private static void writeRoles(JwtMinter.Claims claims, UserAuthorization user) {
+        claims.array("roles", user.roles());
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "refresh");
-        return createToken(claims, userDetails.getUsername(), refreshExpiration);
+        String username = userDetails.getUsername();
+        return jwtMinter.mint(currentSigningKey(), claims -> {
+            claims.string("type", REFRESH_TOKEN_TYPE);
+            writeRegisteredClaims(claims, username, refreshExpiration);
+            // Tokens minted for one user within the same second would otherwise be identical
+            claims.string("jti", UUID.randomUUID().toString());
+        });
     }
 
-    private String createToken(Map<String, Object> claims, String subject, Long expirationTime) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expirationTime);
+    private void writeRegisteredClaims(JwtMinter.Claims claims, String subject, long expirationTime) {
+        long now = System.currentTimeMillis();
+        claims.string("sub", subject)
+                .string("iss", issuer)
+                .number("iat", now / 1000)
+                .number("exp", (now + expirationTime) / 1000);
+    }
 
-        return Jwts.builder()
-                .claims(claims)
-                .subject(subject)
-                .issuer(issuer)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+    private JwtMinter.SigningKey currentSigningKey() {
+        if (!signingKeyRing.isAsymmetric()) {
+            return hmacSigningKey;
+        }
+        SigningKeyRing.ActiveKey activeKey = signingKeyRing.getActiveKey();
+        JwtMinter.SigningKey signingKey = asymmetricSigningKey;
+        if (signingKey == null || !activeKey.kid().equals(signingKey.kid())) {
+            signingKey = JwtMinter.SigningKey.asymmetric(activeKey.kid(), activeKey.algorithm(), activeKey.privateKey());
+            asymmetricSigningKey = signingKey;
+        }
+        return signingKey;
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Verifies the signature and expiry of an access token exactly once and returns its contents,
+     * or the reason it was rejected. Never throws for a bad token.
+     */
+    public TokenCheck check(String token) {
+        return check(token, false);
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /** Same as {@link #check(String)} for a signed refresh token. */
+    public TokenCheck checkRefreshToken(String token) {
+        return check(token, true);
     }
 
-    public <T> T extractClaim(String token, java.util.function.Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    private TokenCheck check(String token, boolean refreshToken) {
+        if (token == null) {
+            return TokenCheck.failed(TokenStatus.MALFORMED);
+        }
+        JwtVerifier.Verification verification = jwtVerifier.verify(token);
+        if (verification.status() != TokenStatus.VALID) {
+            return TokenCheck.failed(verification.status());
+        }
+
+        Map<String, Object> claims = verification.claims();
+        if (claims.get("sub") == null) {
+            // Every token this service issues names its user
+            return TokenCheck.failed(TokenStatus.MALFORMED);
+        }
+        // The authorization server signs from the same key ring, so its access and ID tokens verify
+        // too; they carry its issuer and an audience, which tokens from this class never do
+        if (!issuer.equals(claims.get("iss")) || claims.containsKey("aud")
+                || refreshToken != REFRESH_TOKEN_TYPE.equals(claims.get("type"))) {
+            return TokenCheck.failed(TokenStatus.WRONG_TYPE);
+        }
+        List<String> authorities = extractAuthorities(claims);
+        if (authorities == null) {
+            return TokenCheck.failed(TokenStatus.UNKNOWN_DICTIONARY_VERSION);
+        }
+        return TokenCheck.valid(VerifiedToken.builder()
+                .subject((String) claims.get("sub"))
+                .expiresAt(instantClaim(claims, "exp"))
+                .issuedAt(instantClaim(claims, "iat"))
+                .authorities(authorities)
+                .claims(claims)
+                .build());
     }
 
-    public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static Instant instantClaim(Map<String, Object> claims, String name) {
+        return claims.get(name) instanceof Number seconds ? Instant.ofEpochSecond(seconds.longValue()) : null;
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /** Returns null when compact permissions cannot be decoded, rather than fewer authorities. */
+    private List<String> extractAuthorities(Map<String, Object> claims) {
+        if (claims.get(PERMISSION_BITS_CLAIM) instanceof String encodedBits) {
+            return decodeCompactAuthorities(claims, encodedBits);
+        }
+
+        Object authorities = claims.get("authorities");
+        if (!(authorities instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream()
+                .map(String::valueOf)
+                .toList();
     }
 
-    public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private List<String> decodeCompactAuthorities(Map<String, Object> claims, String encodedBits) {
+        List<String> authorities = new ArrayList<>();
+        if (claims.get("roles") instanceof Collection<?> roles) {
+            roles.forEach(role -> authorities.add("ROLE_" + role));
+        }
+        String version = String.valueOf(claims.get(PERMISSION_VERSION_CLAIM));
+        Optional<List<String>> permissions = permissionDictionary.decode(version, encodedBits);
+        if (permissions.isEmpty()) {
+            // Every version is stored before a token can carry it, so this token was not minted here
+            log.warn("Rejected token for {} with unknown permission dictionary version {}", claims.get("sub"), version);
+            return null;
+        }
+        authorities.addAll(permissions.get());
+        return authorities;
     }
 
     public Long getExpirationTime() {
         return expiration;
     }
+
+    public Long getRefreshExpirationTime() {
+        return refreshExpiration;
+    }
 }
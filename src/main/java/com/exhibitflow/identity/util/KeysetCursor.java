@@ -0,0 +1,35 @@
+package com.exhibitflow.identity.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor carries the unique sort key of the last row a
+ * client has seen, so the next slice is read with {@code WHERE key > :after ORDER BY key} from the
+ * index instead of skipping rows with {@code OFFSET}. An empty cursor starts at the first row.
+ */
+public final class KeysetCursor {
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return "";
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /** Keeps page sizes within what one keyset query should return. */
+    public static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), 1000);
+    }
+}
@@ -0,0 +1,9 @@
+-- Every permission dictionary version compact access tokens may reference (perm_ver claim), so
+-- tokens minted before a restart or a catalog change keep decoding on every instance. A version is
+-- a digest of its names and is written once; rows are a few kilobytes and created only when the
+-- permission catalog changes, so they are kept.
+CREATE TABLE permission_dictionary_versions (
+    version VARCHAR(12) PRIMARY KEY,
+    names TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
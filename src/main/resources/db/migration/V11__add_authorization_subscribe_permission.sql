@@ -0,0 +1,15 @@
+-- Required to subscribe to /oauth/events, which names users and roles as their access changes.
+-- Granted to ADMIN like every other permission; give it to the service accounts of downstream
+-- services through a role of their own.
+INSERT INTO permissions (id, name, description, resource, action)
+SELECT gen_random_uuid(), 'authorization:subscribe', 'Subscribe to authorization change events', 'authorization', 'subscribe'
+WHERE NOT EXISTS (SELECT 1 FROM permissions WHERE name = 'authorization:subscribe');
+
+INSERT INTO role_permissions (role_id, permission_id)
+SELECT r.id, p.id
+FROM roles r, permissions p
+WHERE r.name = 'ADMIN'
+AND p.name = 'authorization:subscribe'
+AND NOT EXISTS (
+    SELECT 1 FROM role_permissions rp WHERE rp.role_id = r.id AND rp.permission_id = p.id
+);
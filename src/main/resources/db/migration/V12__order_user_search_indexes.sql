@@ -0,0 +1,16 @@
+-- GET /users/search now runs two bounded queries instead of one ORed predicate sorted by username:
+-- a username prefix walk of idx_users_username_prefix (from V7) in its own order, and the
+-- closest fuzzy matches by word similarity. Neither collects every match before its LIMIT.
+-- Email and name prefixes are found by the fuzzy query, so their prefix indexes go.
+DROP INDEX IF EXISTS idx_users_email_prefix;
+DROP INDEX IF EXISTS idx_users_first_name_prefix;
+DROP INDEX IF EXISTS idx_users_last_name_prefix;
+
+-- GIN can filter by <% but not return rows ordered by distance; GiST serves ORDER BY <<-> LIMIT n
+-- as a nearest-neighbour scan that stops after n rows. The expression must stay identical to the
+-- one in UserSearchRepository to be used.
+DROP INDEX IF EXISTS idx_users_search_trgm;
+CREATE INDEX idx_users_search_trgm ON users USING gist (
+    lower(username || ' ' || email || ' ' || coalesce(first_name, '') || ' ' || coalesce(last_name, ''))
+    gist_trgm_ops
+);
@@ -0,0 +1,15 @@
+-- Key ring for asymmetric token signing (RS256 / ES256 / EdDSA)
+-- A key signs tokens between activates_at and retires_at and stays published
+-- for verification until expires_at, which covers the longest token lifetime.
+CREATE TABLE signing_keys (
+    kid VARCHAR(64) PRIMARY KEY,
+    algorithm VARCHAR(16) NOT NULL,
+    public_key VARCHAR(4096) NOT NULL,
+    private_key VARCHAR(4096) NOT NULL,
+    activates_at TIMESTAMP NOT NULL,
+    retires_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_signing_keys_expires_at ON signing_keys(expires_at);
@@ -0,0 +1,4 @@
+-- The join table primary keys lead with user_id and role_id; these cover lookups from the
+-- other side, counting a role's users and checking whether a permission is still assigned.
+CREATE INDEX idx_user_roles_role_id ON user_roles(role_id);
+CREATE INDEX idx_role_permissions_permission_id ON role_permissions(permission_id);
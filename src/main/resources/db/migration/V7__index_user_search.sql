@@ -0,0 +1,18 @@
+-- Indexes behind GET /users/search.
+-- Requires the pg_trgm extension. CREATE EXTENSION below needs a role allowed to create it: a
+-- superuser, or on PostgreSQL 13+ (where pg_trgm is trusted) a role with CREATE on the database.
+-- Where the service's role has neither, have a DBA run CREATE EXTENSION pg_trgm beforehand.
+-- Prefix matches use LIKE 'abc%' on lower-cased columns; text_pattern_ops makes that indexable
+-- regardless of the database collation.
+CREATE INDEX idx_users_username_prefix ON users (lower(username) text_pattern_ops);
+CREATE INDEX idx_users_email_prefix ON users (lower(email) text_pattern_ops);
+CREATE INDEX idx_users_first_name_prefix ON users (lower(first_name) text_pattern_ops);
+CREATE INDEX idx_users_last_name_prefix ON users (lower(last_name) text_pattern_ops);
+
+-- Fuzzy matches compare the query with all searchable fields at once by word similarity.
+-- The expression must stay identical to the one in UserSearchRepository to be used.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_users_search_trgm ON users USING gin (
+    lower(username || ' ' || email || ' ' || coalesce(first_name, '') || ' ' || coalesce(last_name, ''))
+    gin_trgm_ops
+);
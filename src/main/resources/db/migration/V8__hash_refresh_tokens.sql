@@ -0,0 +1,15 @@
+-- Refresh tokens are stored as the SHA-256 digest of the token held by the client, in a
+-- fixed-width column with one compact unique index, instead of the full signed JWT.
+ALTER TABLE refresh_tokens ADD COLUMN token_hash BYTEA;
+
+-- Existing JWT refresh tokens stay valid until they expire: they are looked up by the digest
+-- of the same string, computed here exactly as TokenDigest does (SHA-256 over UTF-8).
+UPDATE refresh_tokens SET token_hash = sha256(convert_to(token, 'UTF8'));
+
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_tokens ADD CONSTRAINT chk_refresh_tokens_token_hash_length CHECK (octet_length(token_hash) = 32);
+ALTER TABLE refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
+
+-- Dropping the column also drops its unique constraint; idx_refresh_tokens_token duplicated it
+DROP INDEX IF EXISTS idx_refresh_tokens_token;
+ALTER TABLE refresh_tokens DROP COLUMN token;
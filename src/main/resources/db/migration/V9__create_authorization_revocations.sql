@@ -0,0 +1,11 @@
+-- "Not before" instants (UTC) from role changes, disables and deletions, written with the change
+-- itself and reloaded by every instance running with jwt.stateless-authentication. Rows older than
+-- the access token lifetime are deleted during the reload.
+CREATE TABLE authorization_revocations (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    subject_type VARCHAR(8) NOT NULL,
+    subject VARCHAR(100) NOT NULL,
+    not_before TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_authorization_revocations_not_before ON authorization_revocations(not_before);
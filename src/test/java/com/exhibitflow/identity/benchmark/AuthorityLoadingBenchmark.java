@@ -0,0 +1,146 @@
+package com.exhibitflow.identity.benchmark;
+
+import com.exhibitflow.identity.model.Permission;
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserAuthorizationRepository;
+import com.exhibitflow.identity.security.AuthorizedUser;
+import com.exhibitflow.identity.security.RolePermissionIndex;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of loading one user's authorities the old way, a
+ * {@code LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions} query that returns
+ * roles x permissions rows and hydrates every entity, against the single row read by
+ * {@link UserAuthorizationRepository} and expanded through {@link RolePermissionIndex}.
+ * Runs against an in-memory H2 database, so it shows the mapping and hydration cost rather than
+ * network transfer, which the old query multiplies as well.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=AuthorityLoadingBenchmark "-Dbenchmark.args=-prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorityLoadingBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:authority-loading;DB_CLOSE_DELAY=-1";
+    private static final String FETCH_JOIN =
+            "SELECT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions WHERE u.username = :username";
+    private static final int ROLES = 4;
+
+    /** Permissions per user, spread evenly over its roles. */
+    @Param({"20", "400"})
+    public int permissionCount;
+
+    private SessionFactory sessionFactory;
+    private SingleConnectionDataSource dataSource;
+    private UserAuthorizationRepository userAuthorizationRepository;
+    private RolePermissionIndex rolePermissionIndex;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Role.class)
+                .addAnnotatedClass(Permission.class)
+                .setProperty("hibernate.connection.url", URL)
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+
+        List<RoleRepository.RolePermissionRow> catalog = new ArrayList<>();
+        SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        sessionFactory.inTransaction(session -> {
+            User user = User.builder()
+                    .username("manager")
+                    .email("manager@exhibitflow.com")
+                    .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3nZ7DD8fQ3U6ar7JpDkGIiS")
+                    .build();
+            for (int r = 0; r < ROLES; r++) {
+                Role role = Role.builder().name("ROLE" + r).description("Benchmark role " + r).build();
+                for (int p = 0; p < permissionCount / ROLES; p++) {
+                    String name = "resource" + r + "x" + p + ":read";
+                    Permission permission = Permission.builder()
+                            .name(name)
+                            .description("Read access to resource " + r + "x" + p)
+                            .resource("resource" + r + "x" + p)
+                            .action("read")
+                            .build();
+                    session.persist(permission);
+                    role.addPermission(permission);
+                }
+                session.persist(role);
+                user.addRole(role);
+                for (Permission permission : role.getPermissions()) {
+                    catalog.add(projections.createProjection(RoleRepository.RolePermissionRow.class,
+                            Map.of("roleId", role.getId(), "roleName", role.getName(),
+                                    "permissionName", permission.getName())));
+                }
+            }
+            session.persist(user);
+        });
+
+        // One reused connection, like the pooled connection Hibernate gets
+        dataSource = new SingleConnectionDataSource(URL, "sa", "", true);
+        userAuthorizationRepository = new UserAuthorizationRepository(new NamedParameterJdbcTemplate(dataSource));
+        RoleRepository roleRepository = (RoleRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RoleRepository.class}, (proxy, method, args) -> catalog);
+        rolePermissionIndex = new RolePermissionIndex(roleRepository);
+        rolePermissionIndex.rebuild();
+
+        if (legacyFetchJoin().size() != authorizationRow().getAuthorities().size()) {
+            throw new IllegalStateException("Both paths must load the same authorities");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+        sessionFactory.close();
+    }
+
+    /** What {@code CustomUserDetailsService} did before: hydrate the graph, then collect names. */
+    @Benchmark
+    public Set<GrantedAuthority> legacyFetchJoin() {
+        try (Session session = sessionFactory.openSession()) {
+            User user = session.createQuery(FETCH_JOIN, User.class)
+                    .setParameter("username", "manager")
+                    .getSingleResult();
+            Set<GrantedAuthority> authorities = new HashSet<>();
+            for (Role role : user.getRoles()) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
+                for (Permission permission : role.getPermissions()) {
+                    authorities.add(new SimpleGrantedAuthority(permission.getName()));
+                }
+            }
+            return authorities;
+        }
+    }
+
+    @Benchmark
+    public UserDetails authorizationRow() {
+        return userAuthorizationRepository.findByUsername("manager")
+                .map(rolePermissionIndex::expand)
+                .map(AuthorizedUser::new)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,131 @@
+package com.exhibitflow.identity.benchmark;
+
+import com.exhibitflow.identity.security.TokenCheck;
+import com.exhibitflow.identity.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the old filter path (four independent parses, each with a
+ * freshly derived key and parser) against a single {@link JwtUtil#check(String)} call, and the cost
+ * of rejecting expired or tampered tokens through jjwt exceptions against a {@link TokenCheck}.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtVerificationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-tokens-at-least-512-bits-long-for-hmac-sha512-signing";
+    private static final String ISSUER = "/api/v1";
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String expiredToken;
+    private String tamperedToken;
+    private JwtParser parser;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(null, null, null, null);
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "issuer", ISSUER);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        Date now = new Date();
+        token = Jwts.builder()
+                .subject("manager")
+                .issuer(ISSUER)
+                .claim("roles", List.of("MANAGER"))
+                .claim("authorities", List.of("ROLE_MANAGER", "user:read", "user:write", "role:read",
+                        "content:read", "content:write"))
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 3_600_000))
+                .signWith(legacySigningKey())
+                .compact();
+        expiredToken = Jwts.builder()
+                .subject("manager")
+                .issuer(ISSUER)
+                .issuedAt(new Date(now.getTime() - 7_200_000))
+                .expiration(new Date(now.getTime() - 3_600_000))
+                .signWith(legacySigningKey())
+                .compact();
+        tamperedToken = token.substring(0, token.lastIndexOf('.') + 1) + "A".repeat(86);
+        parser = Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build();
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        // isTokenExpired, extractUsername, then validateToken -> extractUsername + isTokenExpired
+        boolean expired = legacyParse(token).getExpiration().before(new Date());
+        String username = legacyParse(token).getSubject();
+        String validatedUsername = legacyParse(token).getSubject();
+        boolean stillValid = !legacyParse(token).getExpiration().before(new Date());
+        return !expired && username.equals(validatedUsername) && stillValid;
+    }
+
+    @Benchmark
+    public TokenCheck verifyOnce() {
+        return jwtUtil.check(token);
+    }
+
+    @Benchmark
+    public boolean rejectExpiredByException() {
+        return rejectedByException(expiredToken);
+    }
+
+    @Benchmark
+    public boolean rejectTamperedByException() {
+        return rejectedByException(tamperedToken);
+    }
+
+    @Benchmark
+    public TokenCheck rejectExpired() {
+        return jwtUtil.check(expiredToken);
+    }
+
+    @Benchmark
+    public TokenCheck rejectTampered() {
+        return jwtUtil.check(tamperedToken);
+    }
+
+    private boolean rejectedByException(String rejected) {
+        try {
+            parser.parseSignedClaims(rejected);
+            return false;
+        } catch (JwtException e) {
+            return true;
+        }
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
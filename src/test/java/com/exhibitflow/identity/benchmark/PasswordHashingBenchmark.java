@@ -0,0 +1,77 @@
+package com.exhibitflow.identity.benchmark;
+
+import com.exhibitflow.identity.security.PasswordEncoderFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins per second per core for each password hashing setting: one thread verifying a stored
+ * hash, as {@code DaoAuthenticationProvider} does per login. {@code calibrated} settings are
+ * resolved in setup by {@link PasswordEncoderFactory}'s calibration for {@link #targetDuration},
+ * starting from the defaults, and printed.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PasswordHashingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final int DEFAULT_BCRYPT_STRENGTH = 10;
+    private static final int DEFAULT_ARGON2_MEMORY_KIB = 19456;
+    private static final int DEFAULT_ARGON2_ITERATIONS = 2;
+    private static final int ARGON2_PARALLELISM = 1;
+
+    /** {@code bcrypt:<strength>}, {@code argon2:<memory KiB>:<iterations>} or {@code <algorithm>:calibrated}. */
+    @Param({"bcrypt:10", "bcrypt:12", "bcrypt:calibrated",
+            "argon2:19456:2", "argon2:65536:3", "argon2:calibrated"})
+    public String setting;
+
+    @Param({"PT0.25S"})
+    public String targetDuration;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] parts = setting.split(":");
+        String algorithm = parts[0];
+        boolean calibrated = "calibrated".equals(parts[1]);
+        Duration target = Duration.parse(targetDuration);
+
+        int strength = DEFAULT_BCRYPT_STRENGTH;
+        int memoryKib = DEFAULT_ARGON2_MEMORY_KIB;
+        int iterations = DEFAULT_ARGON2_ITERATIONS;
+        if (PasswordEncoderFactory.BCRYPT.equals(algorithm)) {
+            strength = calibrated
+                    ? PasswordEncoderFactory.calibrateBcryptStrength(DEFAULT_BCRYPT_STRENGTH, target)
+                    : Integer.parseInt(parts[1]);
+        } else if (calibrated) {
+            iterations = PasswordEncoderFactory.calibrateArgon2Iterations(memoryKib, DEFAULT_ARGON2_ITERATIONS,
+                    ARGON2_PARALLELISM, target);
+        } else {
+            memoryKib = Integer.parseInt(parts[1]);
+            iterations = Integer.parseInt(parts[2]);
+        }
+
+        encoder = PasswordEncoderFactory.delegating(algorithm, strength, memoryKib, iterations, ARGON2_PARALLELISM);
+        hash = encoder.encode(PASSWORD);
+        System.out.printf("%n%s: %s%n", setting, hash.substring(0, hash.lastIndexOf('$') + 1));
+    }
+
+    @Benchmark
+    public boolean login() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
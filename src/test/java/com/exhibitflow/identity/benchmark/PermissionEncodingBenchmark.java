@@ -0,0 +1,102 @@
+package com.exhibitflow.identity.benchmark;
+
+import com.exhibitflow.identity.repository.PermissionDictionaryVersionRepository;
+import com.exhibitflow.identity.repository.PermissionRepository;
+import com.exhibitflow.identity.security.PermissionDictionary;
+import com.exhibitflow.identity.security.TokenCheck;
+import com.exhibitflow.identity.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Size and verification cost of an access token that lists permission names versus one that
+ * carries them as a bitset over the permission dictionary ({@code jwt.compact-permissions}).
+ * Token and Authorization header sizes are printed during setup.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PermissionEncodingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionEncodingBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-tokens-at-least-512-bits-long-for-hmac-sha512-signing";
+    private static final String ISSUER = "/api/v1";
+
+    @Param({"6", "60"})
+    public int permissionCount;
+
+    private JwtUtil jwtUtil;
+    private String verboseToken;
+    private String compactToken;
+
+    @Setup
+    public void setUp() {
+        List<String> catalog = IntStream.range(0, 120)
+                .mapToObj(i -> "resource" + (i / 4) + ":" + List.of("read", "write", "delete", "admin").get(i % 4))
+                .toList();
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAllNamesInCreationOrder()).thenReturn(catalog);
+        PermissionDictionary dictionary = new PermissionDictionary(permissionRepository,
+                mock(PermissionDictionaryVersionRepository.class));
+        dictionary.reload();
+
+        jwtUtil = new JwtUtil(null, null, dictionary, null);
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "issuer", ISSUER);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        List<String> permissions = catalog.subList(0, permissionCount);
+        List<String> authorities = new ArrayList<>(List.of("ROLE_MANAGER"));
+        authorities.addAll(permissions);
+        PermissionDictionary.Encoded encoded = dictionary.encode(permissions).orElseThrow();
+
+        verboseToken = sign(Map.of("roles", List.of("MANAGER"), "permissions", permissions,
+                "authorities", authorities));
+        compactToken = sign(Map.of("roles", List.of("MANAGER"), "perm_ver", encoded.version(),
+                "perm_bits", encoded.bits()));
+
+        System.out.printf("%n%d permissions: verbose header %d bytes, compact header %d bytes%n",
+                permissionCount, ("Bearer " + verboseToken).length(), ("Bearer " + compactToken).length());
+    }
+
+    @Benchmark
+    public TokenCheck verifyVerbose() {
+        return jwtUtil.check(verboseToken);
+    }
+
+    @Benchmark
+    public TokenCheck verifyCompact() {
+        return jwtUtil.check(compactToken);
+    }
+
+    private static String sign(Map<String, Object> claims) {
+        Date now = new Date();
+        return Jwts.builder()
+                .claims(claims)
+                .subject("manager")
+                .issuer(ISSUER)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
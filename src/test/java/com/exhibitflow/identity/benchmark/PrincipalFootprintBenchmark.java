@@ -0,0 +1,152 @@
+package com.exhibitflow.identity.benchmark;
+
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.security.AuthorizedUser;
+import com.exhibitflow.identity.security.RolePermissionIndex;
+import com.exhibitflow.identity.security.UserAuthorization;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Heap held per cached principal and cost per load when every principal gets its own authority set
+ * (fresh {@code SimpleGrantedAuthority}s, sorted into a new set by {@code User}) versus the
+ * {@link AuthorizedUser} that references the {@code AuthoritySet} interned per role combination.
+ * <p>
+ * Setup caches {@value #CACHED_USERS} principals spread over {@value #ROLE_COMBINATIONS} role
+ * combinations each way and prints the retained bytes per user; run with the GC profiler to
+ * compare allocation per load:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PrincipalFootprintBenchmark "-Dbenchmark.args=-prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PrincipalFootprintBenchmark {
+
+    private static final int CACHED_USERS = 1_000_000;
+    private static final int ROLE_COMBINATIONS = 20;
+    private static final int ROLES = 8;
+    private static final int PERMISSIONS_PER_ROLE = 6;
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3nZ7DD8fQ3U6ar7JpDkGIiS";
+
+    private RolePermissionIndex rolePermissionIndex;
+    private List<List<UUID>> combinationRoleIds;
+    private List<List<String>> combinationRoleNames;
+    private Map<UUID, List<String>> rolePermissions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        List<UUID> roleIds = new ArrayList<>();
+        Map<UUID, String> roleNames = new HashMap<>();
+        rolePermissions = new HashMap<>();
+        List<RoleRepository.RolePermissionRow> rows = new ArrayList<>();
+        for (int r = 0; r < ROLES; r++) {
+            UUID roleId = UUID.randomUUID();
+            roleIds.add(roleId);
+            roleNames.put(roleId, "ROLE" + r);
+            List<String> permissions = new ArrayList<>();
+            for (int p = 0; p < PERMISSIONS_PER_ROLE; p++) {
+                // Neighbouring roles overlap, as they do in a real catalog
+                String permission = "resource" + (r + p / 2) + ":" + List.of("read", "write").get(p % 2);
+                permissions.add(permission);
+                rows.add(projections.createProjection(RoleRepository.RolePermissionRow.class,
+                        Map.of("roleId", roleId, "roleName", "ROLE" + r, "permissionName", permission)));
+            }
+            rolePermissions.put(roleId, permissions);
+        }
+        RoleRepository roleRepository = (RoleRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RoleRepository.class}, (proxy, method, args) -> rows);
+        rolePermissionIndex = new RolePermissionIndex(roleRepository);
+        rolePermissionIndex.rebuild();
+
+        // One to three roles per combination
+        combinationRoleIds = new ArrayList<>();
+        combinationRoleNames = new ArrayList<>();
+        for (int c = 0; c < ROLE_COMBINATIONS; c++) {
+            List<UUID> ids = new ArrayList<>();
+            for (int k = 0; k <= c % 3; k++) {
+                ids.add(roleIds.get((c + k * 3) % ROLES));
+            }
+            combinationRoleIds.add(ids);
+            combinationRoleNames.add(ids.stream().map(roleNames::get).toList());
+        }
+
+        long legacy = retainedBytesPerUser(this::legacyPrincipal);
+        long interned = retainedBytesPerUser(this::internedPrincipal);
+        System.out.printf("%n%,d cached principals: %d bytes per user with per-user authorities, "
+                + "%d bytes per user with interned authority sets%n", CACHED_USERS, legacy, interned);
+    }
+
+    @Benchmark
+    public UserDetails loadLegacy() {
+        return legacyPrincipal(next++);
+    }
+
+    @Benchmark
+    public UserDetails loadInterned() {
+        return internedPrincipal(next++);
+    }
+
+    /** What {@code CustomUserDetailsService} built before: new authority objects for every load. */
+    private UserDetails legacyPrincipal(int user) {
+        List<UUID> roleIds = combinationRoleIds.get(user % ROLE_COMBINATIONS);
+        List<String> roleNames = combinationRoleNames.get(user % ROLE_COMBINATIONS);
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (int i = 0; i < roleIds.size(); i++) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + roleNames.get(i)));
+            for (String permission : rolePermissions.get(roleIds.get(i))) {
+                authorities.add(new SimpleGrantedAuthority(permission));
+            }
+        }
+        return User.withUsername("user" + user)
+                .password(PASSWORD_HASH)
+                .authorities(authorities)
+                .build();
+    }
+
+    /** What {@code CustomUserDetailsService} builds now, starting from the role IDs of the user's rows. */
+    private UserDetails internedPrincipal(int user) {
+        Set<UUID> roleIds = new HashSet<>(combinationRoleIds.get(user % ROLE_COMBINATIONS));
+        return new AuthorizedUser(new UserAuthorization(null, "user" + user, null, PASSWORD_HASH,
+                true, true, true, true, rolePermissionIndex.getCurrent().authoritiesFor(roleIds)));
+    }
+
+    private static long retainedBytesPerUser(IntFunction<UserDetails> principals) {
+        Map<String, UserDetails> cache = new HashMap<>(CACHED_USERS * 2);
+        long empty = usedHeap();
+        for (int i = 0; i < CACHED_USERS; i++) {
+            UserDetails principal = principals.apply(i);
+            cache.put(principal.getUsername(), principal);
+        }
+        long full = usedHeap();
+        // Also keeps the cache reachable until it has been measured
+        if (cache.size() != CACHED_USERS) {
+            throw new IllegalStateException("Unexpected cache size " + cache.size());
+        }
+        return (full - empty) / CACHED_USERS;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
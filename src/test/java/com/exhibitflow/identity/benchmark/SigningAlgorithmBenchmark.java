@@ -0,0 +1,91 @@
+package com.exhibitflow.identity.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput for each supported {@code jwt.algorithm}, using access-token-shaped claims.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=SigningAlgorithmBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-tokens-at-least-512-bits-long-for-hmac-sha512-signing";
+
+    @Param({"HS512", "RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        Key verificationKey;
+        switch (algorithm) {
+            case "HS512" -> {
+                signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+                verificationKey = signingKey;
+            }
+            case "RS256" -> {
+                KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+                signingKey = keyPair.getPrivate();
+                verificationKey = keyPair.getPublic();
+            }
+            case "ES256" -> {
+                KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+                signingKey = keyPair.getPrivate();
+                verificationKey = keyPair.getPublic();
+            }
+            case "EdDSA" -> {
+                KeyPair keyPair = Jwts.SIG.EdDSA.keyPair().build();
+                signingKey = keyPair.getPrivate();
+                verificationKey = keyPair.getPublic();
+            }
+            default -> throw new IllegalArgumentException(algorithm);
+        }
+
+        parser = Jwts.parser()
+                .keyLocator(header -> verificationKey)
+                .build();
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        Date now = new Date();
+        return Jwts.builder()
+                .header().keyId("benchmark").and()
+                .subject("manager")
+                .claim("roles", List.of("MANAGER"))
+                .claim("authorities", List.of("ROLE_MANAGER", "user:read", "user:write", "role:read",
+                        "content:read", "content:write"))
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 3_600_000))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,163 @@
+package com.exhibitflow.identity.benchmark;
+
+import com.exhibitflow.identity.model.Permission;
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserAuthorizationRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.security.RolePermissionIndex;
+import com.exhibitflow.identity.security.SigningKeyRing;
+import com.exhibitflow.identity.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-token cost of the old {@code buildClaims}/{@code createToken} path (claims map, collection
+ * copies, {@code Date}s and a freshly derived key for every token) against {@link JwtUtil#generateToken}
+ * on the streaming minter with roles expanded through {@link RolePermissionIndex}. Run with the GC profiler to compare {@code gc.alloc.rate.norm}:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TokenMintingBenchmark "-Dbenchmark.args=-prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenMintingBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-tokens-at-least-512-bits-long-for-hmac-sha512-signing";
+    private static final String ISSUER = "/api/v1";
+    private static final long EXPIRATION = 3_600_000;
+
+    private JwtUtil jwtUtil;
+    private UserRepository userRepository;
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        Set<Permission> permissions = new HashSet<>();
+        for (String name : List.of("user:read", "user:write", "role:read", "content:read", "content:write")) {
+            permissions.add(Permission.builder().id(UUID.randomUUID()).name(name).build());
+        }
+        Role role = Role.builder().id(UUID.randomUUID()).name("MANAGER").permissions(permissions).build();
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .username("manager")
+                .email("manager@exhibitflow.com")
+                .password("")
+                .roles(Set.of(role))
+                .build();
+        userDetails = org.springframework.security.core.userdetails.User.withUsername("manager")
+                .password("")
+                .build();
+
+        // Plain stubs rather than mocks so that stubbing overhead does not swamp the measurement
+        SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        Optional<User> found = Optional.of(user);
+        userRepository = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> found);
+        Optional<UserAuthorizationRepository.AuthorizationRow> authorizationRow = Optional.of(
+                new UserAuthorizationRepository.AuthorizationRow(user.getId(), user.getUsername(), user.getEmail(),
+                        user.getPassword(), true, true, true, true, Set.of(role.getId())));
+        UserAuthorizationRepository userAuthorizationRepository = new UserAuthorizationRepository(null) {
+            @Override
+            public Optional<AuthorizationRow> findByUsername(String username) {
+                return authorizationRow;
+            }
+        };
+        List<RoleRepository.RolePermissionRow> rolePermissionRows = permissions.stream()
+                .map(permission -> projections.createProjection(RoleRepository.RolePermissionRow.class,
+                        Map.of("roleId", role.getId(), "roleName", role.getName(), "permissionName", permission.getName())))
+                .toList();
+        RoleRepository roleRepository = (RoleRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RoleRepository.class}, (proxy, method, args) -> rolePermissionRows);
+        RolePermissionIndex rolePermissionIndex = new RolePermissionIndex(roleRepository);
+        rolePermissionIndex.rebuild();
+        SigningKeyRing signingKeyRing = new SigningKeyRing(null);
+        ReflectionTestUtils.setField(signingKeyRing, "tokenAlgorithm", "HS512");
+
+        jwtUtil = new JwtUtil(userAuthorizationRepository, signingKeyRing, null, rolePermissionIndex);
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", EXPIRATION);
+        ReflectionTestUtils.setField(jwtUtil, "includeRoles", true);
+        ReflectionTestUtils.setField(jwtUtil, "includePermissions", true);
+        ReflectionTestUtils.setField(jwtUtil, "includeUserDetails", true);
+        ReflectionTestUtils.setField(jwtUtil, "compactPermissions", false);
+        ReflectionTestUtils.setField(jwtUtil, "issuer", ISSUER);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+
+        // Both paths must produce tokens that today's verifiers accept with the same claims
+        Claims legacy = parse(legacyCreateToken());
+        Claims minted = parse(mint());
+        if (!legacy.get("authorities", List.class).containsAll(minted.get("authorities", List.class))
+                || !legacy.getSubject().equals(minted.getSubject())
+                || !legacy.getIssuer().equals(minted.getIssuer())) {
+            throw new IllegalStateException("Minted claims differ: " + legacy + " vs " + minted);
+        }
+    }
+
+    @Benchmark
+    public String legacyCreateToken() {
+        User user = userRepository.findByUsernameWithRolesAndPermissions(userDetails.getUsername()).orElseThrow();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getId().toString());
+        claims.put("username", user.getUsername());
+        claims.put("email", user.getEmail());
+        List<String> roleNames = user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toList());
+        Set<String> permissions = user.getRoles().stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .map(Permission::getName)
+                .collect(Collectors.toSet());
+        claims.put("roles", roleNames);
+        List<String> authorities = new ArrayList<>();
+        roleNames.forEach(roleName -> authorities.add("ROLE_" + roleName));
+        authorities.addAll(permissions);
+        claims.put("authorities", authorities);
+        claims.put("permissions", new ArrayList<>(permissions));
+
+        Date now = new Date();
+        return Jwts.builder()
+                .claims(claims)
+                .subject(user.getUsername())
+                .issuer(ISSUER)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + EXPIRATION))
+                .signWith(legacySigningKey())
+                .compact();
+    }
+
+    @Benchmark
+    public String mint() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    private static Claims parse(String token) {
+        return Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
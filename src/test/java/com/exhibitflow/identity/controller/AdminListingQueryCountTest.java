@@ -0,0 +1,192 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.Permission;
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.PermissionRepository;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The admin listings must cost a constant number of SQL statements however many rows a page holds,
+ * rather than one or more extra selects per user and per role.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admin-listing-query-count",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdminListingQueryCountTest {
+
+    private static final int USERS = 120;
+    private static final int ROLES = 40;
+    private static final int PERMISSIONS_PER_ROLE = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID userWithRoles;
+
+    @BeforeAll
+    void createUsersWithRolesAndPermissions() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Role> roles = new ArrayList<>();
+            for (int r = 0; r < ROLES; r++) {
+                Role role = Role.builder().name("ROLE_" + r).description("Role " + r).build();
+                for (int p = 0; p < PERMISSIONS_PER_ROLE; p++) {
+                    role.addPermission(permissionRepository.save(Permission.builder()
+                            .name("resource" + r + ":action" + p)
+                            .resource("resource" + r)
+                            .action("action" + p)
+                            .build()));
+                }
+                roles.add(roleRepository.save(role));
+            }
+            for (int u = 0; u < USERS; u++) {
+                User user = User.builder()
+                        .username("user" + u)
+                        .email("user" + u + "@exhibitflow.com")
+                        .password("{noop}secret")
+                        .build();
+                user.addRole(roles.get(u % ROLES));
+                user.addRole(roles.get((u + 7) % ROLES));
+                userWithRoles = userRepository.save(user).getId();
+            }
+        });
+    }
+
+    @Test
+    void listingUsersCostsTheSameForTenOrOneHundredUsers() throws Exception {
+        long small = statementsFor("/users?size=10", 10);
+        long large = statementsFor("/users?size=100", 100);
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void listingRolesCostsTheSameForFiveOrThirtyRoles() throws Exception {
+        long small = statementsFor("/admin/roles?size=5", 5);
+        long large = statementsFor("/admin/roles?size=30", 30);
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void roleCountsAreReadWithoutLoadingMembers() throws Exception {
+        Statistics statistics = statistics();
+        mockMvc.perform(get("/admin/roles?size=40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].permissionCount").value(PERMISSIONS_PER_ROLE))
+                .andExpect(jsonPath("$.content[0].userCount").value(USERS * 2 / ROLES));
+
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(ROLES);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void listingRolesOfAUserCostsAConstantNumberOfStatements() throws Exception {
+        Statistics statistics = statistics();
+        mockMvc.perform(get("/users/{userId}/roles", userWithRoles))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void walkingUsersByCursorCostsTheSameOnEveryPage() throws Exception {
+        List<String> usernames = new ArrayList<>();
+        List<Long> statementsPerPage = new ArrayList<>();
+        String cursor = "";
+        do {
+            Statistics statistics = statistics();
+            MvcResult result = mockMvc.perform(get("/users").param("cursor", cursor).param("size", "50"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn();
+            statementsPerPage.add(statistics.getPrepareStatementCount());
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("content").forEach(user -> usernames.add(user.get("username").asText()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(usernames).hasSize(USERS).doesNotHaveDuplicates().isSorted();
+        assertThat(statementsPerPage).hasSize(3).allMatch(count -> count.equals(statementsPerPage.get(0)));
+        assertThat(statementsPerPage.get(0)).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void cursorListingsReportTotalsOnlyWhenAskedFor() throws Exception {
+        mockMvc.perform(get("/admin/roles").param("cursor", "").param("size", "5").param("count", "EXACT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.content[0].userCount").value(USERS * 2 / ROLES))
+                .andExpect(jsonPath("$.totalElements").value(ROLES));
+        mockMvc.perform(get("/admin/permissions").param("cursor", "").param("count", "ESTIMATE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(20))
+                .andExpect(jsonPath("$.totalElements").isNumber());
+    }
+
+    private long statementsFor(String url, int expectedContent) throws Exception {
+        Statistics statistics = statistics();
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(expectedContent));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,128 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.Permission;
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.PermissionRepository;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.service.AuthorizationEventStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The authorization change stream names users and roles, so it is only open to principals holding
+ * {@code authorization:subscribe}, and only up to {@code jwt.events.max-subscribers} at a time.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authorization-events-access",
+        "jwt.events.max-subscribers=1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuthorizationEventsAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthorizationEventStream authorizationEventStream;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void createUsers() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Role role = Role.builder().name("EVENT_SUBSCRIBER").description("Downstream services").build();
+            role.addPermission(permissionRepository.save(Permission.builder()
+                    .name(AuthorizationEventStream.SUBSCRIBE_AUTHORITY)
+                    .resource("authorization")
+                    .action("subscribe")
+                    .build()));
+            User service = user("downstream");
+            service.addRole(roleRepository.save(role));
+            userRepository.save(service);
+            userRepository.save(user("someone"));
+        });
+    }
+
+    @Test
+    void streamRequiresTheSubscribePermissionAndIsCapped() throws Exception {
+        mockMvc.perform(get("/oauth/events"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/oauth/events").header(HttpHeaders.AUTHORIZATION, "Bearer " + login("someone")))
+                .andExpect(status().isForbidden());
+
+        String serviceToken = login("downstream");
+        MvcResult subscription = mockMvc.perform(get("/oauth/events")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!subscription.getResponse().getContentAsString().contains("event:reset")
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(subscription.getResponse().getContentAsString()).contains("event:reset");
+
+        mockMvc.perform(get("/oauth/events").header(HttpHeaders.AUTHORIZATION, "Bearer " + serviceToken))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        assertThat(authorizationEventStream.getSubscriberCount()).isEqualTo(1);
+    }
+
+    private User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@exhibitflow.com")
+                .password(passwordEncoder.encode("password123"))
+                .build();
+    }
+
+    private String login(String username) throws Exception {
+        String response = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+}
@@ -0,0 +1,113 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.security.JwtMinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every element of a batch gets its own answer: a null entry or a token without timestamps is
+ * reported as inactive in its position instead of failing the whole request.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batch-introspection")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BatchIntrospectionTest {
+
+    private static final String USERNAME = "introspected";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${server.servlet.context-path:/api/v1}")
+    private String issuer;
+
+    @BeforeAll
+    void createUser() {
+        userRepository.save(User.builder()
+                .username(USERNAME)
+                .email("introspected@exhibitflow.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+    }
+
+    @Test
+    void nullAndTimestamplessTokensAreInactiveInTheirPosition() throws Exception {
+        String accessToken = login();
+        String withoutTimestamps = withoutTimestamps();
+
+        mockMvc.perform(post("/oauth/introspect/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Collections.singletonMap("tokens",
+                                Arrays.asList(accessToken, null, withoutTimestamps, "garbage", accessToken)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].active").value(true))
+                .andExpect(jsonPath("$[0].username").value(USERNAME))
+                .andExpect(jsonPath("$[1].active").value(false))
+                .andExpect(jsonPath("$[2].active").value(false))
+                .andExpect(jsonPath("$[2].username").value(nullValue()))
+                .andExpect(jsonPath("$[3].active").value(false))
+                .andExpect(jsonPath("$[4].active").value(true));
+    }
+
+    @Test
+    void timestamplessTokenIsInactiveOnItsOwn() throws Exception {
+        mockMvc.perform(post("/oauth/introspect").param("token", withoutTimestamps()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false));
+    }
+
+    /** Signed with the service's own key and otherwise well-formed, but without exp and iat. */
+    private String withoutTimestamps() {
+        return new JwtMinter().mint(
+                JwtMinter.SigningKey.hmac(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))),
+                claims -> claims.string("sub", USERNAME)
+                        .string("iss", issuer)
+                        .array("authorities", List.of("ROLE_VIEWER")));
+    }
+
+    private String login() throws Exception {
+        String response = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + USERNAME + "\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+}
@@ -0,0 +1,190 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserImportRepository;
+import com.exhibitflow.identity.repository.UserImportRepository.ImportedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk grants and revocations change exactly the missing or present assignments, across the
+ * 1000-id chunks explicit user lists are split into, without loading user entities, and publish
+ * one authorization change event only when something changed.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk-role-change",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@RecordApplicationEvents
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkRoleChangeTest {
+
+    // One more than UserRoleRepository.CHUNK_SIZE, so explicit lists span two chunks
+    private static final int USERS = 1001;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserImportRepository userImportRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private final List<UUID> userIds = new ArrayList<>();
+
+    @BeforeAll
+    void createUsers() {
+        List<ImportedUser> users = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            UUID id = UUID.randomUUID();
+            users.add(new ImportedUser(id, "bulk" + u, "bulk" + u + "@exhibitflow.com", "{noop}secret",
+                    null, null, true, Set.of()));
+            userIds.add(id);
+        }
+        transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(users));
+    }
+
+    @Test
+    void grantAndRevokeByUserIdsSpanChunks() throws Exception {
+        UUID role = role("CHUNKED");
+        // Already held by the last user of each chunk, so those are not counted again
+        grant(Map.of("roleIds", Set.of(role), "userIds", Set.of(userIds.get(999), userIds.get(1000))), 2);
+        events.clear();
+
+        Statistics statistics = statistics();
+        grant(Map.of("roleIds", Set.of(role), "userIds", userIds), USERS - 2);
+
+        assertThat(holders(role)).isEqualTo(USERS);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        List<AuthorizationChangeEvent> published = published();
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getType()).isEqualTo(AuthorizationChangeEvent.Type.USER_ROLES_CHANGED);
+        assertThat(published.get(0).getUsernames()).hasSize(USERS).contains("bulk0", "bulk999", "bulk1000");
+
+        revoke(Map.of("roleIds", Set.of(role), "userIds", userIds), USERS);
+        assertThat(holders(role)).isZero();
+    }
+
+    @Test
+    void repeatedChangesAreIdempotentAndSilent() throws Exception {
+        UUID role = role("IDEMPOTENT");
+        grant(Map.of("roleIds", Set.of(role), "userIds", userIds), USERS);
+        events.clear();
+
+        grant(Map.of("roleIds", Set.of(role), "userIds", userIds), 0);
+        assertThat(holders(role)).isEqualTo(USERS);
+        assertThat(published()).isEmpty();
+
+        revoke(Map.of("roleIds", Set.of(role), "userIds", userIds), USERS);
+        events.clear();
+        revoke(Map.of("roleIds", Set.of(role), "userIds", userIds), 0);
+        assertThat(published()).isEmpty();
+    }
+
+    @Test
+    void grantAndRevokeForHoldersOfARole() throws Exception {
+        UUID holders = role("HOLDERS");
+        UUID granted = role("GRANTED_TO_HOLDERS");
+        grant(Map.of("roleIds", Set.of(holders), "userIds", userIds), USERS);
+        grant(Map.of("roleIds", Set.of(granted), "userIds", Set.of(userIds.get(0))), 1);
+        events.clear();
+
+        grant(Map.of("roleIds", Set.of(granted), "holdersOfRoleId", holders), USERS - 1);
+        assertThat(holders(granted)).isEqualTo(USERS);
+        List<AuthorizationChangeEvent> published = published();
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getType()).isEqualTo(AuthorizationChangeEvent.Type.ROLE_MEMBERSHIP_CHANGED);
+        assertThat(published.get(0).getRoleName()).isEqualTo("HOLDERS");
+
+        events.clear();
+        grant(Map.of("roleIds", Set.of(granted), "holdersOfRoleId", holders), 0);
+        assertThat(published()).isEmpty();
+
+        revoke(Map.of("roleIds", Set.of(granted), "holdersOfRoleId", holders), USERS);
+        assertThat(holders(granted)).isZero();
+        assertThat(holders(holders)).isEqualTo(USERS);
+    }
+
+    private void grant(Map<String, Object> request, int expectedChanges) throws Exception {
+        change("/admin/users/roles/grant", request, expectedChanges);
+    }
+
+    private void revoke(Map<String, Object> request, int expectedChanges) throws Exception {
+        change("/admin/users/roles/revoke", request, expectedChanges);
+    }
+
+    private void change(String url, Map<String, Object> request, int expectedChanges) throws Exception {
+        mockMvc.perform(post(url)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignmentsChanged").value(expectedChanges));
+    }
+
+    private UUID role(String name) {
+        return roleRepository.save(Role.builder().name(name).description(name).build()).getId();
+    }
+
+    private int holders(UUID roleId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_roles WHERE role_id = :roleId",
+                Map.of("roleId", roleId), Integer.class);
+    }
+
+    private List<AuthorizationChangeEvent> published() {
+        return events.stream(AuthorizationChangeEvent.class).toList();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,173 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.Permission;
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.PermissionDictionaryVersionRepository;
+import com.exhibitflow.identity.repository.PermissionRepository;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.security.JwtMinter;
+import com.exhibitflow.identity.security.PermissionDictionary;
+import com.exhibitflow.identity.security.TokenCheck;
+import com.exhibitflow.identity.security.TokenStatus;
+import com.exhibitflow.identity.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compact tokens keep their permissions across catalog changes and restarts, because every
+ * dictionary version is stored; a token referencing a version that was never stored is rejected
+ * instead of authenticating without permissions.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:compact-permission-token",
+        "jwt.compact-permissions=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CompactPermissionTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private PermissionDictionaryVersionRepository versionRepository;
+
+    @Autowired
+    private PermissionDictionary permissionDictionary;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @BeforeAll
+    void createEditor() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Role role = Role.builder().name("EDITOR").description("Editor").build();
+            role.addPermission(permission("content:read"));
+            role.addPermission(permission("content:write"));
+            User user = User.builder()
+                    .username("editor")
+                    .email("editor@exhibitflow.com")
+                    .password(passwordEncoder.encode("password123"))
+                    .build();
+            user.addRole(roleRepository.save(role));
+            userRepository.save(user);
+        });
+        permissionDictionary.reload();
+    }
+
+    @Test
+    void tokenKeepsItsPermissionsAcrossCatalogChangeAndRestart() throws Exception {
+        String token = login();
+        String version = permissionDictionary.getCurrent().id();
+        assertThat(authorities(token)).containsExactlyInAnyOrder("ROLE_EDITOR", "content:read", "content:write");
+
+        permission("content:delete");
+        permissionDictionary.reload();
+        assertThat(permissionDictionary.getCurrent().id()).isNotEqualTo(version);
+
+        // A fresh instance, as after a restart, only knows the current catalog from memory
+        PermissionDictionary restarted = new PermissionDictionary(permissionRepository, versionRepository);
+        restarted.reload();
+        assertThat(restarted.find(version)).hasValueSatisfying(found ->
+                assertThat(found.names()).containsExactly("content:read", "content:write"));
+
+        assertThat(authorities(token)).containsExactlyInAnyOrder("ROLE_EDITOR", "content:read", "content:write");
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/oauth/permission-dictionary").param("version", version))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.permissions.length()").value(2));
+    }
+
+    @Test
+    void tokenWithUnknownDictionaryVersionIsRejected() throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        String token = new JwtMinter().mint(
+                JwtMinter.SigningKey.hmac(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))),
+                claims -> claims.string("sub", "editor")
+                        .string("iss", "/api/v1")
+                        .number("iat", now)
+                        .number("exp", now + 3600)
+                        .array("roles", List.of("EDITOR"))
+                        .string("perm_ver", "000000000000")
+                        .string("perm_bits", "Aw"));
+
+        assertThat(jwtUtil.check(token).getStatus()).isEqualTo(TokenStatus.UNKNOWN_DICTIONARY_VERSION);
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/oauth/permission-dictionary").param("version", "000000000000"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Permission permission(String name) {
+        String[] parts = name.split(":");
+        return permissionRepository.save(Permission.builder()
+                .name(name)
+                .resource(parts[0])
+                .action(parts[1])
+                .build());
+    }
+
+    private List<String> authorities(String token) {
+        TokenCheck check = jwtUtil.check(token);
+        assertThat(check.getStatus()).isEqualTo(TokenStatus.VALID);
+        return check.getToken().getAuthorities();
+    }
+
+    private String login() throws Exception {
+        String response = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"editor\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(response).get("accessToken").asText();
+        assertThat(jwtUtil.check(token).getToken().getClaims()).containsKey("perm_bits");
+        return token;
+    }
+}
@@ -0,0 +1,89 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A user disabled behind this instance's back, without an authorization change event to evict the
+ * cached result, stops introspecting as active once {@code max-staleness} has passed, long before
+ * the token itself expires.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:introspection-staleness",
+        "jwt.introspection.cache.max-staleness=PT1S"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class IntrospectionStalenessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void userDisabledElsewhereIsInactiveAfterMaxStaleness() throws Exception {
+        userRepository.save(User.builder()
+                .username("elsewhere")
+                .email("elsewhere@exhibitflow.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+        String token = login();
+        assertThat(active(token)).isTrue();
+
+        // As if disabled on another instance: no event reaches this one
+        jdbcTemplate.update("UPDATE users SET enabled = false WHERE username = 'elsewhere'");
+        long disabledAt = System.nanoTime();
+        assertThat(active(token)).as("served from the cache").isTrue();
+
+        long deadline = disabledAt + TimeUnit.SECONDS.toNanos(10);
+        while (active(token)) {
+            assertThat(System.nanoTime()).as("still active after 10s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - disabledAt)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    private boolean active(String token) throws Exception {
+        String response = mockMvc.perform(post("/oauth/introspect").param("token", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("active").asBoolean();
+    }
+
+    private String login() throws Exception {
+        String response = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"elsewhere\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+}
@@ -0,0 +1,70 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.service.LastLoginRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logins only record their time in memory; a flush writes the latest time per user without
+ * touching {@code updated_at}, and never moves a stored time backwards.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:last-login-write-behind",
+        "last-login.flush-interval=PT1H"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class LastLoginWriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Test
+    void loginTimeIsWrittenOnFlushOnly() throws Exception {
+        User created = userRepository.save(User.builder()
+                .username("regular")
+                .email("regular@exhibitflow.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+        LocalDateTime updatedAt = userRepository.findById(created.getId()).orElseThrow().getUpdatedAt();
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"regular\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk());
+        assertThat(userRepository.findById(created.getId()).orElseThrow().getLastLogin()).isNull();
+
+        lastLoginRecorder.flush();
+        User flushed = userRepository.findById(created.getId()).orElseThrow();
+        assertThat(flushed.getLastLogin()).isNotNull();
+        assertThat(flushed.getUpdatedAt()).isEqualTo(updatedAt);
+
+        lastLoginRecorder.record(created.getId(), flushed.getLastLogin().minusHours(1));
+        lastLoginRecorder.flush();
+        assertThat(userRepository.findById(created.getId()).orElseThrow().getLastLogin())
+                .isEqualTo(flushed.getLastLogin());
+    }
+}
@@ -0,0 +1,124 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.RefreshTokenRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.service.LastLoginRecorder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Twenty times more concurrent logins than the production pool has connections must all succeed:
+ * a login holds a connection only to read the user and to write its refresh token, never while
+ * the password hash is compared, so callers do not queue behind BCrypt for a connection.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:login-connection-pool",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "spring.datasource.hikari.connection-timeout=30000",
+        "password-hashing.queue-capacity=" + LoginConnectionPoolTest.CONCURRENT_LOGINS,
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoginConnectionPoolTest {
+
+    static final int CONCURRENT_LOGINS = 200;
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    private final AtomicInteger comparedInTransaction = new AtomicInteger();
+
+    @BeforeAll
+    void createUsers() {
+        // Counts every hash comparison made while a transaction, and so a connection, is bound
+        doAnswer(invocation -> {
+            if (!TransactionSynchronizationManager.getResourceMap().isEmpty()) {
+                comparedInTransaction.incrementAndGet();
+            }
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).matches(any(), any());
+
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_LOGINS; i++) {
+            users.add(User.builder()
+                    .username("login" + i)
+                    .email("login" + i + "@exhibitflow.com")
+                    .password(passwordHash)
+                    .build());
+        }
+        userRepository.saveAll(users);
+    }
+
+    @Test
+    void concurrentLoginsDoNotExhaustTheConnectionPool() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENT_LOGINS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> logins = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_LOGINS; i++) {
+                String body = "{\"username\":\"login" + i + "\",\"password\":\"" + PASSWORD + "\"}";
+                logins.add(callers.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/auth/login")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> login : logins) {
+                statuses.add(login.get());
+            }
+            assertThat(statuses).hasSize(CONCURRENT_LOGINS).containsOnly(200);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(comparedInTransaction).hasValue(0);
+        assertThat(refreshTokenRepository.count()).isEqualTo(CONCURRENT_LOGINS);
+        lastLoginRecorder.flush();
+        assertThat(userRepository.findAll()).allMatch(user -> user.getLastLogin() != null);
+    }
+}
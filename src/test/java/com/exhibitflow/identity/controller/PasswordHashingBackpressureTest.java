@@ -0,0 +1,110 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.security.PasswordHashingExecutor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Once every hashing thread is busy and the queue is full, a login is refused at once with 503 and
+ * {@code Retry-After} instead of waiting, and succeeds again as soon as the pool has room.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:password-hashing-backpressure",
+        "password-hashing.threads=1",
+        "password-hashing.queue-capacity=1",
+        "password-hashing.retry-after=PT2S"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PasswordHashingBackpressureTest {
+
+    private static final String LOGIN = "{\"username\":\"busy\",\"password\":\"password123\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    void createUser() {
+        userRepository.save(User.builder()
+                .username("busy")
+                .email("busy@exhibitflow.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+    }
+
+    @Test
+    void loginFailsFastWhileTheHashingQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One hash running on the only thread and one waiting in the queue
+            Future<?> running = callers.submit(() -> passwordHashingExecutor.call("test", () -> {
+                started.countDown();
+                return await(release);
+            }));
+            started.await(10, TimeUnit.SECONDS);
+            Future<?> queued = callers.submit(() -> passwordHashingExecutor.call("test", () -> await(release)));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (passwordHashingExecutor.getQueueDepth() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "2"))
+                    .andExpect(jsonPath("$.status").value(503));
+
+            release.countDown();
+            running.get(10, TimeUnit.SECONDS);
+            queued.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty());
+    }
+
+    private static Boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.exception.PasswordHashingBusyException;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.security.PasswordHashingExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A stored hash with an outdated algorithm or cost is replaced on the next successful login, once,
+ * and the replacement keeps verifying, also through the cached principal. A rehash the saturated
+ * hashing pool refuses is skipped rather than failing the login, and done on a later one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:password-rehash",
+        "password-hashing.algorithm=argon2",
+        "password-hashing.argon2.memory-kib=1024",
+        "password-hashing.argon2.iterations=1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class PasswordRehashTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Test
+    void unprefixedBcryptHashIsUpgradedToArgon2OnLogin() throws Exception {
+        userRepository.save(User.builder()
+                .username("legacy")
+                .email("legacy@exhibitflow.com")
+                .password(new BCryptPasswordEncoder(4).encode(PASSWORD))
+                .build());
+
+        login("legacy", PASSWORD).andExpect(status().isOk());
+        String upgraded = storedPassword("legacy");
+        assertThat(upgraded).startsWith("{argon2}$argon2id$");
+
+        login("legacy", PASSWORD).andExpect(status().isOk());
+        assertThat(storedPassword("legacy")).isEqualTo(upgraded);
+        login("legacy", "wrong-password").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void wrongPasswordLeavesTheStoredHashAlone() throws Exception {
+        String hash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+        userRepository.save(User.builder()
+                .username("unchanged")
+                .email("unchanged@exhibitflow.com")
+                .password(hash)
+                .build());
+
+        login("unchanged", "wrong-password").andExpect(status().isUnauthorized());
+        assertThat(storedPassword("unchanged")).isEqualTo(hash);
+    }
+
+    @Test
+    void rehashRefusedByTheHashingPoolIsSkipped() throws Exception {
+        String hash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        userRepository.save(User.builder()
+                .username("saturated")
+                .email("saturated@exhibitflow.com")
+                .password(hash)
+                .build());
+        // The hash comparison is admitted, then the pool is full by the time the rehash is submitted
+        doThrow(new PasswordHashingBusyException("Too many password checks in progress, retry later",
+                Duration.ofSeconds(1)))
+                .doCallRealMethod()
+                .when(passwordHashingExecutor).call(eq("encode"), any());
+
+        login("saturated", PASSWORD).andExpect(status().isOk());
+        assertThat(storedPassword("saturated")).isEqualTo(hash);
+
+        login("saturated", PASSWORD).andExpect(status().isOk());
+        assertThat(storedPassword("saturated")).startsWith("{argon2}$argon2id$");
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        return mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"));
+    }
+
+    private String storedPassword(String username) {
+        return userRepository.findByUsername(username).orElseThrow().getPassword();
+    }
+}
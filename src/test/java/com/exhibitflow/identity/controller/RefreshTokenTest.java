@@ -0,0 +1,126 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.RefreshToken;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.RefreshTokenRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import com.exhibitflow.identity.security.CustomUserDetailsService;
+import com.exhibitflow.identity.security.TokenDigest;
+import com.exhibitflow.identity.util.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Refresh tokens are opaque and stored only as digests; they rotate on use, and signed JWT
+ * refresh tokens stored before the switch keep working until they expire.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:refresh-token")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RefreshTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    private User user;
+
+    @BeforeAll
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .username("refresher")
+                .email("refresher@exhibitflow.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+    }
+
+    @Test
+    void opaqueRefreshTokenIsStoredAsDigestAndRotates() throws Exception {
+        String first = login();
+        // Two logins within the same second still get distinct tokens
+        String second = login();
+
+        assertThat(first).hasSize(43).doesNotContain(".").isNotEqualTo(second);
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(TokenDigest.sha256(first)).orElseThrow();
+        assertThat(stored.getTokenHash()).hasSize(32);
+        assertThat(stored.getExpiresAt())
+                .isAfter(LocalDateTime.now().plusSeconds(jwtUtil.getExpirationTime() / 1000));
+
+        String rotated = refreshToken(refresh(first).andExpect(status().isOk()));
+        assertThat(rotated).doesNotContain(".").isNotEqualTo(first);
+        refresh(first).andExpect(status().isUnauthorized());
+        refresh(rotated).andExpect(status().isOk());
+    }
+
+    @Test
+    void storedJwtRefreshTokenStaysValid() throws Exception {
+        String legacy = jwtUtil.generateRefreshToken(userDetailsService.loadUserByUsername("refresher"));
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(TokenDigest.sha256(legacy))
+                .user(user)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+
+        String rotated = refreshToken(refresh(legacy).andExpect(status().isOk()));
+        assertThat(rotated).doesNotContain(".");
+        refresh(legacy).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void unknownRefreshTokenIsRejected() throws Exception {
+        refresh("q0Zp3n8V1cR4Xk9sT2mYwLhJ6bA5uE7dNfG0oKiQyWs").andExpect(status().isUnauthorized());
+    }
+
+    private String login() throws Exception {
+        return refreshToken(mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"refresher\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk()));
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private String refreshToken(ResultActions result) throws Exception {
+        JsonNode body = objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+        return body.get("refreshToken").asText();
+    }
+}
@@ -0,0 +1,97 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserImportRepository;
+import com.exhibitflow.identity.repository.UserImportRepository.ImportedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registering a user grants the default MANAGER role without loading the users who already hold
+ * it, so the cost of a registration does not grow with the number of managers.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:registration-entity-load",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RegistrationEntityLoadTest {
+
+    private static final int MANAGERS = 300;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserImportRepository userImportRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID managerRoleId;
+
+    @BeforeAll
+    void createManagers() {
+        managerRoleId = roleRepository.save(Role.builder().name("MANAGER").description("Managers").build()).getId();
+        List<ImportedUser> managers = new ArrayList<>();
+        for (int m = 0; m < MANAGERS; m++) {
+            managers.add(new ImportedUser(UUID.randomUUID(), "manager" + m, "manager" + m + "@exhibitflow.com",
+                    "{noop}secret", null, null, true, Set.of(managerRoleId)));
+        }
+        transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(managers));
+    }
+
+    @Test
+    void registrationDoesNotLoadExistingManagers() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"newcomer","email":"newcomer@exhibitflow.com","password":"password123"}
+                                """))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.roles[0]").value("MANAGER"));
+
+        assertThat(statistics.getEntityLoadCount()).isLessThan(MANAGERS);
+        assertThat(statistics.getCollectionStatistics(Role.class.getName() + ".users").getLoadCount()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_roles WHERE role_id = :roleId",
+                Map.of("roleId", managerRoleId), Integer.class)).isEqualTo(MANAGERS + 1);
+    }
+}
@@ -0,0 +1,142 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserImportRepository;
+import com.exhibitflow.identity.repository.UserImportRepository.ImportedUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Creating a user with roles, assigning roles and removing one change only the user's side of the
+ * membership, so none of them loads the users who already hold the role.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:role-assignment-entity-load",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RoleAssignmentEntityLoadTest {
+
+    private static final int MANAGERS = 300;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserImportRepository userImportRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID managerRoleId;
+    private final UUID assigneeId = UUID.randomUUID();
+
+    @BeforeAll
+    void createManagers() {
+        managerRoleId = roleRepository.save(Role.builder().name("MANAGER").description("Managers").build()).getId();
+        List<ImportedUser> users = new ArrayList<>();
+        for (int m = 0; m < MANAGERS; m++) {
+            users.add(new ImportedUser(UUID.randomUUID(), "manager" + m, "manager" + m + "@exhibitflow.com",
+                    "{noop}secret", null, null, true, Set.of(managerRoleId)));
+        }
+        users.add(new ImportedUser(assigneeId, "assignee", "assignee@exhibitflow.com",
+                "{noop}secret", null, null, true, Set.of()));
+        transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(users));
+    }
+
+    @Test
+    void adminUserCreationDoesNotLoadExistingHolders() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(post("/admin/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "username", "created",
+                                "email", "created@exhibitflow.com",
+                                "password", "password123",
+                                "roleIds", Set.of(managerRoleId)))))
+                .andExpect(status().isCreated());
+
+        assertNoHoldersLoaded(statistics);
+        assertThat(holds("created")).isTrue();
+    }
+
+    @Test
+    void assigningAndRemovingARoleDoesNotLoadExistingHolders() throws Exception {
+        Statistics statistics = statistics();
+        mockMvc.perform(post("/users/{userId}/roles", assigneeId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("roleIds", Set.of(managerRoleId)))))
+                .andExpect(status().isOk());
+
+        assertNoHoldersLoaded(statistics);
+        assertThat(holds("assignee")).isTrue();
+
+        statistics = statistics();
+        mockMvc.perform(delete("/users/{userId}/roles/{roleId}", assigneeId, managerRoleId))
+                .andExpect(status().isOk());
+
+        assertNoHoldersLoaded(statistics);
+        assertThat(holds("assignee")).isFalse();
+    }
+
+    private void assertNoHoldersLoaded(Statistics statistics) {
+        assertThat(statistics.getEntityLoadCount()).isLessThan(MANAGERS);
+        assertThat(statistics.getCollectionStatistics(Role.class.getName() + ".users").getLoadCount()).isZero();
+    }
+
+    private boolean holds(String username) {
+        return jdbcTemplate.queryForObject("""
+                        SELECT COUNT(*) FROM user_roles ur JOIN users u ON u.id = ur.user_id
+                        WHERE u.username = :username AND ur.role_id = :roleId
+                        """,
+                Map.of("username", username, "roleId", managerRoleId), Integer.class) > 0;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
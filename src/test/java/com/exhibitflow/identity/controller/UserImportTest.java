@@ -0,0 +1,185 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.model.Role;
+import com.exhibitflow.identity.model.User;
+import com.exhibitflow.identity.repository.RoleRepository;
+import com.exhibitflow.identity.repository.UserImportRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every rejected row is reported with its own line number and the reason it failed, including rows
+ * that only conflict once the batch insert runs, and the good rows around it are still created.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-import",
+        "user-import.batch-size=3"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoSpyBean
+    private UserImportRepository userImportRepository;
+
+    private UUID roleId;
+
+    @BeforeAll
+    void createExistingUserAndRole() {
+        roleId = roleRepository.save(Role.builder().name("IMPORTED").description("Imported users").build()).getId();
+        userRepository.save(User.builder()
+                .username("existing")
+                .email("existing@exhibitflow.com")
+                .password("{noop}secret")
+                .build());
+    }
+
+    @Test
+    void csvQuotingAndLineNumbers() throws Exception {
+        String csv = """
+                username,email,password,firstName,lastName,roleIds
+                csv1,csv1@exhibitflow.com,password123,"Smith, Jr.","O""Brien",
+
+                csv2,csv2@exhibitflow.com,password123,Ann,Lee,%s
+                csv3,csv3@exhibitflow.com,short,Ann,Lee,
+                csv4,csv4@exhibitflow.com,password123,Ann
+                csv5,csv5@exhibitflow.com,password123,Ann,Lee,not-a-uuid
+                "csv6","csv6@exhibitflow.com",password123,,,
+                """.formatted(roleId);
+
+        importUsers(csv, "text/csv")
+                .andExpect(jsonPath("$.received").value(6))
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(5))
+                .andExpect(jsonPath("$.errors[0].username").value("csv3"))
+                .andExpect(jsonPath("$.errors[0].message").value("Password must be between 8 and 100 characters"))
+                .andExpect(jsonPath("$.errors[1].line").value(6))
+                .andExpect(jsonPath("$.errors[1].message").value("Expected 6 columns but found 4"))
+                .andExpect(jsonPath("$.errors[2].line").value(7))
+                .andExpect(jsonPath("$.errors[2].message").value("Invalid role id in: not-a-uuid"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User quoted = userRepository.findByUsername("csv1").orElseThrow();
+            assertThat(quoted.getFirstName()).isEqualTo("Smith, Jr.");
+            assertThat(quoted.getLastName()).isEqualTo("O\"Brien");
+            assertThat(quoted.getRoles()).isEmpty();
+            assertThat(userRepository.findByUsername("csv2").orElseThrow().getRoles())
+                    .extracting(Role::getName).containsExactly("IMPORTED");
+            assertThat(userRepository.findByUsername("csv6").orElseThrow().getFirstName()).isNull();
+        });
+    }
+
+    @Test
+    void ndjsonRowErrorsAndDuplicates() throws Exception {
+        String ndjson = """
+                {"username":"nd1","email":"nd1@exhibitflow.com","password":"password123"}
+                null
+                {"username":"nd2",
+                {"username":"nd1","email":"nd1b@exhibitflow.com","password":"password123"}
+                {"username":"nd3","email":"nd1@exhibitflow.com","password":"password123"}
+                {"username":"existing","email":"nd4@exhibitflow.com","password":"password123"}
+                {"username":"nd5","email":"existing@exhibitflow.com","password":"password123"}
+                {"username":"nd6","email":"nd6@exhibitflow.com","password":"password123","roleIds":["%s"]}
+                """.formatted(UUID.randomUUID());
+
+        importUsers(ndjson, "application/x-ndjson")
+                .andExpect(jsonPath("$.received").value(8))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Expected a JSON object"))
+                .andExpect(jsonPath("$.errors[1].line").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value(startsWith("Malformed JSON")))
+                .andExpect(jsonPath("$.errors[2].line").value(4))
+                .andExpect(jsonPath("$.errors[2].message").value("Duplicate username in import"))
+                .andExpect(jsonPath("$.errors[3].line").value(5))
+                .andExpect(jsonPath("$.errors[3].message").value("Duplicate email in import"))
+                .andExpect(jsonPath("$.errors[4].line").value(6))
+                .andExpect(jsonPath("$.errors[4].message").value("Username already exists"))
+                .andExpect(jsonPath("$.errors[5].line").value(7))
+                .andExpect(jsonPath("$.errors[5].message").value("Email already exists"))
+                .andExpect(jsonPath("$.errors[6].line").value(8))
+                .andExpect(jsonPath("$.errors[6].message").value(startsWith("Role not found")));
+
+        assertThat(userRepository.findByUsername("nd1")).isPresent();
+    }
+
+    @Test
+    void usernameTakenAfterThePreCheckIsReportedAsSuch() throws Exception {
+        // As if another request created the user between the pre-check and the batch insert
+        doReturn(Set.of()).doCallRealMethod()
+                .when(userImportRepository).findExistingUsernames(any());
+        String ndjson = """
+                {"username":"race1","email":"race1@exhibitflow.com","password":"password123"}
+                {"username":"existing","email":"race2@exhibitflow.com","password":"password123"}
+                {"username":"race3","email":"race3@exhibitflow.com","password":"password123"}
+                """;
+
+        importUsers(ndjson, "application/x-ndjson")
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.errors.length()").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Username already exists"));
+
+        assertThat(userRepository.findByUsername("race1")).isPresent();
+        assertThat(userRepository.findByUsername("race3")).isPresent();
+    }
+
+    @Test
+    void emailTakenAfterThePreCheckIsReportedAsSuch() throws Exception {
+        doReturn(Set.of()).doCallRealMethod()
+                .when(userImportRepository).findExistingEmails(any());
+        String ndjson = """
+                {"username":"race4","email":"race4@exhibitflow.com","password":"password123"}
+                {"username":"race5","email":"existing@exhibitflow.com","password":"password123"}
+                """;
+
+        importUsers(ndjson, "application/x-ndjson")
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Email already exists"));
+    }
+
+    private ResultActions importUsers(String body, String contentType) throws Exception {
+        return mockMvc.perform(post("/admin/users/import")
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,131 @@
+package com.exhibitflow.identity.controller;
+
+import com.exhibitflow.identity.repository.UserImportRepository;
+import com.exhibitflow.identity.repository.UserImportRepository.ImportedUser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Search matches any of the searchable fields case-insensitively, treats {@code %} and {@code _}
+ * in the query literally, and returns matches in username order across cursor pages. Every
+ * username prefix match is returned, fuzzy matches only up to {@code user-search.fuzzy-limit}.
+ * Runs with {@code user-search.trigram=false}, so the fuzzy part is the substring fallback.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-search",
+        "user-search.fuzzy-limit=" + UserSearchTest.FUZZY_LIMIT
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserSearchTest {
+
+    static final int FUZZY_LIMIT = 10;
+    private static final int NAMESAKES = FUZZY_LIMIT + 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserImportRepository userImportRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void createUsers() {
+        List<ImportedUser> users = new ArrayList<>(List.of(
+                user("smithxa", "smithxa@example.org", null, null),
+                user("smith_a", "smith_a@example.org", null, null),
+                user("asmith", "asmith@example.org", null, null),
+                user("john", "john@example.org", "John", "Smith"),
+                user("kate", "kate@example.org", "SMITHERS", null),
+                user("zed", "smiley@example.org", null, null),
+                user("bob", "bob@example.org", "Bob", "Jones"),
+                user("discount", "discount@example.org", "50%off", null),
+                user("fivehundred", "fivehundred@example.org", "500x", null)));
+        for (int n = 0; n < NAMESAKES; n++) {
+            users.add(user("namesake" + n, "namesake" + n + "@example.org", null, "Quux"));
+        }
+        transactionTemplate.executeWithoutResult(status -> userImportRepository.insertAll(users));
+    }
+
+    @Test
+    void matchesEveryFieldCaseInsensitivelyInUsernameOrder() throws Exception {
+        assertThat(search("SMI", 20)).containsExactly("asmith", "john", "kate", "smith_a", "smithxa", "zed");
+        assertThat(search("jones", 20)).containsExactly("bob");
+        assertThat(search("nobody", 20)).isEmpty();
+    }
+
+    @Test
+    void likeWildcardsInTheQueryAreLiteral() throws Exception {
+        assertThat(search("th_", 20)).containsExactly("smith_a");
+        assertThat(search("50%", 20)).containsExactly("discount");
+        assertThat(search("%%%", 20)).isEmpty();
+        assertThat(search("___", 20)).isEmpty();
+    }
+
+    @Test
+    void cursorPagesContinueInUsernameOrder() throws Exception {
+        assertThat(pages("smi", 2)).containsExactly("asmith", "john", "kate", "smith_a", "smithxa", "zed");
+    }
+
+    @Test
+    void fuzzyMatchesAreCappedButPrefixMatchesAreNot() throws Exception {
+        assertThat(search("namesake", 100)).hasSize(NAMESAKES);
+        assertThat(search("quux", 100)).hasSize(FUZZY_LIMIT);
+        assertThat(pages("quux", 3)).hasSize(FUZZY_LIMIT).doesNotHaveDuplicates();
+    }
+
+    private List<String> pages(String query, int size) throws Exception {
+        List<String> usernames = new ArrayList<>();
+        String cursor = "";
+        do {
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get("/users/search")
+                            .param("q", query).param("size", Integer.toString(size)).param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertThat(page.get("content").size()).isLessThanOrEqualTo(size);
+            page.get("content").forEach(user -> usernames.add(user.get("username").asText()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return usernames;
+    }
+
+    private List<String> search(String query, int size) throws Exception {
+        JsonNode page = objectMapper.readTree(mockMvc.perform(get("/users/search")
+                        .param("q", query).param("size", Integer.toString(size)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        List<String> usernames = new ArrayList<>();
+        page.get("content").forEach(user -> usernames.add(user.get("username").asText()));
+        return usernames;
+    }
+
+    private static ImportedUser user(String username, String email, String firstName, String lastName) {
+        return new ImportedUser(UUID.randomUUID(), username, email, "{noop}secret", firstName, lastName, true, Set.of());
+    }
+}
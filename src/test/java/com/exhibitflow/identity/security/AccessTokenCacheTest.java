@@ -0,0 +1,96 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Entries expire with their token or after {@code max-staleness}, whichever comes first, and
+ * authorization change events evict the affected users' entries.
+ */
+class AccessTokenCacheTest {
+
+    private static final Instant IN_ONE_DAY = Instant.now().plus(Duration.ofDays(1));
+
+    @Test
+    void entryIsServedUntilMaxStaleness() throws Exception {
+        AccessTokenCache cache = cache(Duration.ofMillis(300));
+        cache.put("token", user("alice"), IN_ONE_DAY);
+
+        assertThat(cache.get("token")).isNotNull();
+        Thread.sleep(500);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void entryExpiresWithItsTokenBeforeMaxStaleness() throws Exception {
+        AccessTokenCache cache = cache(Duration.ofHours(1));
+        cache.put("token", user("alice"), Instant.now().plusMillis(300));
+
+        assertThat(cache.get("token")).isNotNull();
+        Thread.sleep(500);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void storedPrincipalHasNoPassword() {
+        AccessTokenCache cache = cache(Duration.ofHours(1));
+
+        UserDetails stored = cache.put("token", user("alice"), IN_ONE_DAY);
+
+        assertThat(stored.getPassword()).isEmpty();
+        assertThat(cache.get("token").getPassword()).isEmpty();
+    }
+
+    @Test
+    void userLevelChangeEvictsOnlyThatUser() {
+        AccessTokenCache cache = cache(Duration.ofHours(1));
+        cache.put("alice-1", user("alice"), IN_ONE_DAY);
+        cache.put("alice-2", user("alice"), IN_ONE_DAY);
+        cache.put("bob", user("bob"), IN_ONE_DAY);
+
+        cache.onAuthorizationChange(AuthorizationChangeEvent.forUsers(
+                AuthorizationChangeEvent.Type.USER_DISABLED, Set.of("alice")));
+
+        assertThat(cache.get("alice-1")).isNull();
+        assertThat(cache.get("alice-2")).isNull();
+        assertThat(cache.get("bob")).isNotNull();
+    }
+
+    @Test
+    void roleLevelChangeEvictsEverything() {
+        AccessTokenCache cache = cache(Duration.ofHours(1));
+        cache.put("alice", user("alice"), IN_ONE_DAY);
+        cache.put("bob", user("bob"), IN_ONE_DAY);
+
+        cache.onAuthorizationChange(AuthorizationChangeEvent.forRole(
+                AuthorizationChangeEvent.Type.ROLE_PERMISSIONS_CHANGED, "MANAGER"));
+
+        assertThat(cache.get("alice")).isNull();
+        assertThat(cache.get("bob")).isNull();
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        AccessTokenCache cache = new AccessTokenCache(false, 100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+        assertThat(cache.put("token", user("alice"), IN_ONE_DAY)).isNotNull();
+        assertThat(cache.get("token")).isNull();
+    }
+
+    private static AccessTokenCache cache(Duration maxStaleness) {
+        return new AccessTokenCache(true, 100, maxStaleness, new SimpleMeterRegistry());
+    }
+
+    private static UserDetails user(String username) {
+        return User.withUsername(username).password("{noop}secret").roles("VIEWER").build();
+    }
+}
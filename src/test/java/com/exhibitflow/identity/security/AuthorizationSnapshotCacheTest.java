@@ -0,0 +1,81 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Snapshots expire after {@code max-staleness}, and a snapshot loaded before an eviction, by an
+ * authorization change or a password update, is not cached after it.
+ */
+class AuthorizationSnapshotCacheTest {
+
+    @Test
+    void snapshotIsServedUntilMaxStaleness() throws Exception {
+        AuthorizationSnapshotCache cache = cache(Duration.ofMillis(300));
+        cache.put(user("alice"), cache.generation());
+
+        assertThat(cache.getUserFromCache("alice")).isNotNull();
+        Thread.sleep(500);
+        assertThat(cache.getUserFromCache("alice")).isNull();
+    }
+
+    @Test
+    void snapshotLoadedBeforeAnAuthorizationChangeIsNotCached() {
+        AuthorizationSnapshotCache cache = cache(Duration.ofMinutes(1));
+        long generation = cache.generation();
+
+        // The user is read, then disabled and evicted before the snapshot is put
+        cache.onAuthorizationChange(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_DISABLED, "alice"));
+        cache.put(user("alice"), generation);
+
+        assertThat(cache.getUserFromCache("alice")).isNull();
+        cache.put(user("alice"), cache.generation());
+        assertThat(cache.getUserFromCache("alice")).isNotNull();
+    }
+
+    @Test
+    void snapshotLoadedBeforeARemovalIsNotCached() {
+        AuthorizationSnapshotCache cache = cache(Duration.ofMinutes(1));
+        long generation = cache.generation();
+
+        cache.removeUserFromCache("alice");
+        cache.put(user("alice"), generation);
+
+        assertThat(cache.getUserFromCache("alice")).isNull();
+    }
+
+    @Test
+    void putFromTheAuthenticationProviderIsIgnored() {
+        AuthorizationSnapshotCache cache = cache(Duration.ofMinutes(1));
+
+        cache.putUserInCache(user("alice"));
+
+        assertThat(cache.getUserFromCache("alice")).isNull();
+    }
+
+    @Test
+    void servedCopiesKeepTheCachedCredentials() {
+        AuthorizationSnapshotCache cache = cache(Duration.ofMinutes(1));
+        cache.put(user("alice"), cache.generation());
+
+        ((AuthorizedUser) cache.getUserFromCache("alice")).eraseCredentials();
+
+        assertThat(cache.getUserFromCache("alice").getPassword()).isEqualTo("{noop}secret");
+    }
+
+    private static AuthorizationSnapshotCache cache(Duration maxStaleness) {
+        return new AuthorizationSnapshotCache(true, 100, maxStaleness, new SimpleMeterRegistry());
+    }
+
+    private static AuthorizedUser user(String username) {
+        return new AuthorizedUser(new UserAuthorization(UUID.randomUUID(), username, username + "@exhibitflow.com",
+                "{noop}secret", true, true, true, true, AuthoritySet.NONE));
+    }
+}
@@ -0,0 +1,82 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.dto.TokenIntrospectionResponse;
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Active results expire with their token or after {@code max-staleness}, whichever comes first,
+ * and a result loaded before an eviction is not stored after it.
+ */
+class IntrospectionCacheTest {
+
+    private static final long IN_ONE_DAY = Instant.now().plus(Duration.ofDays(1)).getEpochSecond();
+
+    @Test
+    void activeResultIsServedUntilMaxStaleness() throws Exception {
+        IntrospectionCache cache = cache(Duration.ofMillis(300));
+        cache.put("token", "alice", active("alice", IN_ONE_DAY), cache.generation());
+
+        assertThat(cache.get("token")).isNotNull();
+        Thread.sleep(500);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void activeResultExpiresWithItsTokenBeforeMaxStaleness() throws Exception {
+        IntrospectionCache cache = cache(Duration.ofHours(1));
+        cache.put("token", "alice", active("alice", Instant.now().plusSeconds(1).getEpochSecond()), cache.generation());
+
+        assertThat(cache.get("token")).isNotNull();
+        Thread.sleep(1500);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void resultLoadedBeforeAnEvictionIsNotStored() {
+        IntrospectionCache cache = cache(Duration.ofHours(1));
+        long generation = cache.generation();
+
+        // The user is read, then disabled and evicted before the result is put
+        cache.onAuthorizationChange(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_DISABLED, "alice"));
+        cache.put("token", "alice", active("alice", IN_ONE_DAY), generation);
+
+        assertThat(cache.get("token")).isNull();
+        cache.put("token", "alice", active("alice", IN_ONE_DAY), cache.generation());
+        assertThat(cache.get("token")).isNotNull();
+    }
+
+    @Test
+    void userLevelChangeEvictsOnlyThatUser() {
+        IntrospectionCache cache = cache(Duration.ofHours(1));
+        cache.put("alice", "alice", active("alice", IN_ONE_DAY), cache.generation());
+        cache.put("bob", "bob", active("bob", IN_ONE_DAY), cache.generation());
+
+        cache.onAuthorizationChange(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_ROLES_CHANGED, "alice"));
+
+        assertThat(cache.get("alice")).isNull();
+        assertThat(cache.get("bob")).isNotNull();
+    }
+
+    private static IntrospectionCache cache(Duration maxStaleness) {
+        return new IntrospectionCache(true, 100, Duration.ofSeconds(10), maxStaleness, new SimpleMeterRegistry());
+    }
+
+    private static TokenIntrospectionResponse active(String username, long exp) {
+        return TokenIntrospectionResponse.builder()
+                .active(true)
+                .username(username)
+                .exp(exp)
+                .roles(List.of("VIEWER"))
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.exhibitflow.identity.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tokens written by {@link JwtMinter} must verify and parse in jjwt exactly like tokens from
+ * {@code Jwts.builder()}, for every supported algorithm and for any string content.
+ */
+class JwtMinterTest {
+
+    private static final long EXP = System.currentTimeMillis() / 1000 + 3600;
+
+    private final JwtMinter minter = new JwtMinter();
+
+    @Test
+    void hmacTokenVerifiesInJjwtWithTheAlgorithmOfTheKeyLength() {
+        for (int length : new int[]{32, 48, 64}) {
+            SecretKey key = Keys.hmacShaKeyFor(new byte[length]);
+            String token = minter.mint(JwtMinter.SigningKey.hmac(key), this::writeClaims);
+
+            Jws<Claims> parsed = Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+
+            assertThat(parsed.getHeader().getAlgorithm()).isEqualTo("HS" + length * 8);
+            assertThat(parsed.getHeader().getKeyId()).isNull();
+            assertClaims(parsed.getPayload());
+        }
+    }
+
+    @Test
+    void rs256TokenVerifiesInJjwt() throws Exception {
+        assertAsymmetricTokenVerifies("RS256", rsaKeyPair());
+    }
+
+    @Test
+    void es256TokenVerifiesInJjwt() throws Exception {
+        KeyPair keyPair = ecKeyPair();
+        // R and S are variable length in DER; enough signatures to hit the padded and short cases
+        for (int i = 0; i < 50; i++) {
+            assertAsymmetricTokenVerifies("ES256", keyPair);
+        }
+    }
+
+    @Test
+    void edDsaTokenVerifiesInJjwt() throws Exception {
+        assertAsymmetricTokenVerifies("EdDSA", KeyPairGenerator.getInstance("Ed25519").generateKeyPair());
+    }
+
+    @Test
+    void stringsAreEscapedAsJson() {
+        SecretKey key = Keys.hmacShaKeyFor(new byte[64]);
+        String awkward = "quote \" backslash \\ newline \n tab \t bell \u0007 é € 😀 end";
+
+        String token = minter.mint(JwtMinter.SigningKey.hmac(key), claims -> claims
+                .string("sub", awkward)
+                .string("skipped", null)
+                .beginArray("authorities")
+                .element("ROLE_", awkward)
+                .endArray());
+
+        Claims parsed = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        assertThat(parsed.getSubject()).isEqualTo(awkward);
+        assertThat(parsed).doesNotContainKey("skipped");
+        assertThat(parsed.get("authorities", List.class)).containsExactly("ROLE_" + awkward);
+    }
+
+    @Test
+    void emptyArrayIsWritten() {
+        SecretKey key = Keys.hmacShaKeyFor(new byte[64]);
+
+        String token = minter.mint(JwtMinter.SigningKey.hmac(key), claims -> claims.array("roles", List.of()));
+
+        Claims parsed = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        assertThat(parsed.get("roles", List.class)).isEmpty();
+    }
+
+    @Test
+    void claimsLargerThanTheInitialBufferAreWritten() {
+        SecretKey key = Keys.hmacShaKeyFor(new byte[64]);
+        List<String> permissions = IntStream.range(0, 500)
+                .mapToObj(i -> "resource" + i + ":read")
+                .toList();
+
+        String token = minter.mint(JwtMinter.SigningKey.hmac(key), claims -> claims.array("permissions", permissions));
+
+        Claims parsed = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        assertThat(parsed.get("permissions", List.class)).isEqualTo(permissions);
+    }
+
+    @Test
+    void unsupportedKeysAreRefused() throws Exception {
+        assertThatThrownBy(() -> JwtMinter.SigningKey.hmac(new SecretKeySpec(new byte[32], "AES")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        JwtMinter.SigningKey unsupported = JwtMinter.SigningKey.asymmetric("kid", "PS256", rsaKeyPair().getPrivate());
+        assertThatThrownBy(() -> minter.mint(unsupported, this::writeClaims))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertAsymmetricTokenVerifies(String algorithm, KeyPair keyPair) {
+        String token = minter.mint(JwtMinter.SigningKey.asymmetric("key-1", algorithm, keyPair.getPrivate()),
+                this::writeClaims);
+
+        Jws<Claims> parsed = parser(keyPair.getPublic()).parseSignedClaims(token);
+
+        JwsHeader header = parsed.getHeader();
+        assertThat(header.getAlgorithm()).isEqualTo(algorithm);
+        assertThat(header.getKeyId()).isEqualTo("key-1");
+        assertClaims(parsed.getPayload());
+    }
+
+    private static JwtParser parser(PublicKey key) {
+        return Jwts.parser().verifyWith(key).build();
+    }
+
+    private void writeClaims(JwtMinter.Claims claims) {
+        claims.string("sub", "alice")
+                .string("iss", "/api/v1")
+                .number("iat", EXP - 3600)
+                .number("exp", EXP)
+                .array("roles", List.of("MANAGER", "VIEWER"));
+    }
+
+    private static void assertClaims(Claims claims) {
+        assertThat(claims.getSubject()).isEqualTo("alice");
+        assertThat(claims.getIssuer()).isEqualTo("/api/v1");
+        assertThat(claims.getExpiration().getTime() / 1000).isEqualTo(EXP);
+        assertThat(claims.get("roles", List.class)).containsExactly("MANAGER", "VIEWER");
+    }
+
+    static KeyPair rsaKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    static KeyPair ecKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+}
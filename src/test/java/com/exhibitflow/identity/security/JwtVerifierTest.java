@@ -0,0 +1,226 @@
+package com.exhibitflow.identity.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tokens from jjwt and from {@link JwtMinter} verify, and anything tampered, confused between key
+ * types, expired or structurally broken is reported with its status instead of throwing.
+ */
+class JwtVerifierTest {
+
+    private static final long NOW = System.currentTimeMillis() / 1000;
+
+    private final SecretKey hmacKey = Keys.hmacShaKeyFor(bytes(64, 7));
+    private final KeyPair rsa;
+    private final KeyPair ec;
+    private final KeyPair ed;
+    private final JwtVerifier verifier;
+
+    JwtVerifierTest() throws GeneralSecurityException {
+        rsa = JwtMinterTest.rsaKeyPair();
+        ec = JwtMinterTest.ecKeyPair();
+        ed = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        Map<String, PublicKey> keys = Map.of("rsa", rsa.getPublic(), "ec", ec.getPublic(), "ed", ed.getPublic());
+        verifier = new JwtVerifier(JwtMinter.SigningKey.hmac(hmacKey), keys::get);
+    }
+
+    @Test
+    void jjwtTokensVerify() {
+        assertValid(Jwts.builder().subject("alice").expiration(inSeconds(60)).signWith(hmacKey).compact());
+        assertValid(jjwtToken("rsa", rsa));
+        assertValid(jjwtToken("ec", ec));
+        assertValid(jjwtToken("ed", ed));
+    }
+
+    @Test
+    void minterTokensVerify() {
+        JwtMinter minter = new JwtMinter();
+
+        assertValid(minter.mint(JwtMinter.SigningKey.hmac(hmacKey), this::writeClaims));
+        assertValid(minter.mint(JwtMinter.SigningKey.asymmetric("rsa", "RS256", rsa.getPrivate()), this::writeClaims));
+        for (int i = 0; i < 20; i++) {
+            assertValid(minter.mint(JwtMinter.SigningKey.asymmetric("ec", "ES256", ec.getPrivate()), this::writeClaims));
+        }
+        assertValid(minter.mint(JwtMinter.SigningKey.asymmetric("ed", "EdDSA", ed.getPrivate()), this::writeClaims));
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        for (String token : List.of(hmacToken(), jjwtToken("rsa", rsa), jjwtToken("ec", ec), jjwtToken("ed", ed))) {
+            String[] parts = token.split("\\.");
+            String forged = parts[0] + "." + encode("{\"sub\":\"admin\",\"exp\":" + (NOW + 60) + "}") + "." + parts[2];
+
+            assertStatus(forged, TokenStatus.BAD_SIGNATURE);
+        }
+    }
+
+    @Test
+    void tamperedSignatureIsRejected() {
+        for (String token : List.of(hmacToken(), jjwtToken("rsa", rsa), jjwtToken("ec", ec), jjwtToken("ed", ed))) {
+            int signatureStart = token.lastIndexOf('.') + 1;
+            char flipped = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+            String forged = token.substring(0, signatureStart) + flipped + token.substring(signatureStart + 1);
+
+            assertStatus(forged, TokenStatus.BAD_SIGNATURE);
+            assertStatus(token.substring(0, token.length() - 4), TokenStatus.BAD_SIGNATURE);
+        }
+    }
+
+    @Test
+    void hmacAlgorithmMustMatchTheKey() {
+        // Same secret, but HS256 instead of the HS512 its length selects
+        String token = Jwts.builder().subject("alice").signWith(hmacKey, Jwts.SIG.HS256).compact();
+
+        assertStatus(token, TokenStatus.BAD_SIGNATURE);
+    }
+
+    @Test
+    void noneAlgorithmIsRejected() {
+        String unsigned = encode("{\"alg\":\"none\"}") + "." + encode(claims());
+
+        assertStatus(unsigned + ".", TokenStatus.MALFORMED);
+        assertStatus(unsigned + "." + hmacToken().substring(hmacToken().lastIndexOf('.') + 1), TokenStatus.BAD_SIGNATURE);
+    }
+
+    @Test
+    void keyIdDecidesTheAlgorithm() {
+        JwtMinter minter = new JwtMinter();
+
+        // An HMAC keyed with the RSA public key, the classic RS256/HS256 confusion
+        assertStatus(signWithHmac("{\"alg\":\"HS256\",\"kid\":\"rsa\"}", claims(), rsa.getPublic().getEncoded()),
+                TokenStatus.BAD_SIGNATURE);
+        // HMAC tokens must not carry a kid, even with the right secret
+        assertStatus(signWithHmac("{\"alg\":\"HS512\",\"kid\":\"rsa\"}", claims(), hmacKey.getEncoded()),
+                TokenStatus.BAD_SIGNATURE);
+        // An RSA signature presented under the EC key, and the other way round
+        assertStatus(minter.mint(JwtMinter.SigningKey.asymmetric("ec", "RS256", rsa.getPrivate()), this::writeClaims),
+                TokenStatus.BAD_SIGNATURE);
+        assertStatus(minter.mint(JwtMinter.SigningKey.asymmetric("rsa", "ES256", ec.getPrivate()), this::writeClaims),
+                TokenStatus.BAD_SIGNATURE);
+        assertStatus(minter.mint(JwtMinter.SigningKey.asymmetric("unknown", "RS256", rsa.getPrivate()), this::writeClaims),
+                TokenStatus.BAD_SIGNATURE);
+    }
+
+    @Test
+    void expiryBoundaries() {
+        long now = System.currentTimeMillis() / 1000;
+
+        assertStatus(hmacToken("{\"sub\":\"alice\",\"exp\":" + (now - 1) + "}"), TokenStatus.EXPIRED);
+        assertStatus(hmacToken("{\"sub\":\"alice\",\"exp\":" + (now + 2) + "}"), TokenStatus.VALID);
+        assertStatus(hmacToken("{\"sub\":\"alice\",\"nbf\":" + (now + 60) + "}"), TokenStatus.EXPIRED);
+        assertStatus(hmacToken("{\"sub\":\"alice\",\"nbf\":" + (now - 1) + "}"), TokenStatus.VALID);
+        assertStatus(hmacToken("{\"sub\":\"alice\"}"), TokenStatus.VALID);
+    }
+
+    @Test
+    void malformedSegmentsAreRejected() {
+        String header = encode("{\"alg\":\"HS512\"}");
+        String payload = encode(claims());
+        String signature = hmacToken().substring(hmacToken().lastIndexOf('.') + 1);
+
+        for (String token : List.of(
+                "",
+                "abc",
+                header + "." + payload,
+                header + "." + payload + ".",
+                "." + payload + "." + signature,
+                header + ".." + signature,
+                header + "." + payload + "." + signature + ".x",
+                header + "=." + payload + "." + signature,
+                header + "." + payload + "+." + signature,
+                header + ".AAAAA." + signature,
+                encode("{}") + "." + payload + "." + signature,
+                encode("not json") + "." + payload + "." + signature)) {
+            assertStatus(token, TokenStatus.MALFORMED);
+        }
+    }
+
+    @Test
+    void unsupportedHeadersAndClaimsAreMalformed() {
+        assertStatus(signWithHmac("{\"alg\":\"HS512\",\"crit\":[\"exp\"]}", claims(), hmacKey.getEncoded()),
+                TokenStatus.MALFORMED);
+        assertStatus(hmacToken("{\"sub\":42}"), TokenStatus.MALFORMED);
+        assertStatus(hmacToken("{\"sub\":\"alice\",\"exp\":\"" + (NOW + 60) + "\"}"), TokenStatus.MALFORMED);
+        assertStatus(hmacToken("[\"alice\"]"), TokenStatus.MALFORMED);
+    }
+
+    private void assertValid(String token) {
+        JwtVerifier.Verification verification = verifier.verify(token);
+        assertThat(verification.status()).isEqualTo(TokenStatus.VALID);
+        assertThat(verification.claims()).containsEntry("sub", "alice");
+    }
+
+    private void assertStatus(String token, TokenStatus status) {
+        assertThat(verifier.verify(token).status()).as(token).isEqualTo(status);
+    }
+
+    private String jjwtToken(String kid, KeyPair keyPair) {
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject("alice")
+                .expiration(inSeconds(60))
+                .signWith(keyPair.getPrivate())
+                .compact();
+    }
+
+    private String hmacToken() {
+        return hmacToken(claims());
+    }
+
+    private String hmacToken(String payload) {
+        return signWithHmac("{\"alg\":\"HS512\"}", payload, hmacKey.getEncoded());
+    }
+
+    private void writeClaims(JwtMinter.Claims claims) {
+        claims.string("sub", "alice").number("iat", NOW).number("exp", NOW + 60);
+    }
+
+    private static String claims() {
+        return "{\"sub\":\"alice\",\"iat\":" + NOW + ",\"exp\":" + (NOW + 60) + "}";
+    }
+
+    private static String signWithHmac(String header, String payload, byte[] secret) {
+        String algorithm = header.contains("HS256") ? "HmacSHA256" : "HmacSHA512";
+        String signingInput = encode(header) + "." + encode(payload);
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(secret, algorithm));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Date inSeconds(long seconds) {
+        return new Date((NOW + seconds) * 1000);
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
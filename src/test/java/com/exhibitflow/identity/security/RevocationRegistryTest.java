@@ -0,0 +1,168 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import com.exhibitflow.identity.model.AuthorizationRevocation;
+import com.exhibitflow.identity.repository.AuthorizationRevocationRepository;
+import com.exhibitflow.identity.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stateless revocation treats a token from the same second as a change as issued before it, and
+ * picks up disables and revocations recorded by other instances on reload.
+ */
+class RevocationRegistryTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AuthorizationRevocationRepository revocationRepository = mock(AuthorizationRevocationRepository.class);
+    private RevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RevocationRegistry(userRepository, revocationRepository);
+        ReflectionTestUtils.setField(registry, "statelessAuthentication", true);
+        ReflectionTestUtils.setField(registry, "expiration", 3_600_000L);
+        when(userRepository.findDisabledUsernames()).thenReturn(List.of());
+        when(revocationRepository.findByNotBeforeGreaterThanEqual(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void tokenFromTheSecondOfARoleChangeIsRevoked() {
+        Instant changeSecond = withinOneSecond(() -> registry.onAuthorizationChange(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_ROLES_CHANGED, "alice")));
+
+        assertThat(registry.isRevoked(token("alice", changeSecond.minusSeconds(5), "ROLE_VIEWER"))).isTrue();
+        assertThat(registry.isRevoked(token("alice", changeSecond, "ROLE_VIEWER"))).isTrue();
+        assertThat(registry.isRevoked(token("alice", changeSecond.plusSeconds(1), "ROLE_VIEWER"))).isFalse();
+        assertThat(registry.isRevoked(token("bob", changeSecond, "ROLE_VIEWER"))).isFalse();
+    }
+
+    @Test
+    void tokenFromTheSecondOfARolePermissionChangeIsRevoked() {
+        Instant changeSecond = withinOneSecond(() -> registry.onAuthorizationChange(AuthorizationChangeEvent.forRole(
+                AuthorizationChangeEvent.Type.ROLE_PERMISSIONS_CHANGED, "MANAGER")));
+
+        assertThat(registry.isRevoked(token("alice", changeSecond, "ROLE_MANAGER"))).isTrue();
+        assertThat(registry.isRevoked(token("alice", changeSecond, "ROLE_VIEWER"))).isFalse();
+        assertThat(registry.isRevoked(token("alice", changeSecond.plusSeconds(1), "ROLE_MANAGER"))).isFalse();
+    }
+
+    @Test
+    void reloadPicksUpRevocationsRecordedElsewhere() {
+        Instant changedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(10);
+        when(revocationRepository.findByNotBeforeGreaterThanEqual(any())).thenReturn(List.of(
+                revocation(AuthorizationRevocation.SubjectType.USER, "bob", changedAt),
+                revocation(AuthorizationRevocation.SubjectType.ROLE, "EDITOR", changedAt)));
+
+        registry.reload();
+
+        assertThat(registry.isRevoked(token("bob", changedAt.minusSeconds(60), "ROLE_VIEWER"))).isTrue();
+        assertThat(registry.isRevoked(token("bob", changedAt.plusSeconds(1), "ROLE_VIEWER"))).isFalse();
+        assertThat(registry.isRevoked(token("carol", changedAt, "ROLE_EDITOR"))).isTrue();
+        assertThat(registry.isRevoked(token("carol", changedAt, "ROLE_VIEWER"))).isFalse();
+        verify(revocationRepository).deleteOlderThan(any());
+    }
+
+    @Test
+    void reloadPicksUpDisablesAndEnablesMadeElsewhere() {
+        Instant now = Instant.now();
+        when(userRepository.findDisabledUsernames()).thenReturn(List.of("dave"));
+        registry.reload();
+        assertThat(registry.isRevoked(token("dave", now, "ROLE_VIEWER"))).isTrue();
+
+        when(userRepository.findDisabledUsernames()).thenReturn(List.of());
+        registry.reload();
+        assertThat(registry.isRevoked(token("dave", now.plusSeconds(1), "ROLE_VIEWER"))).isFalse();
+    }
+
+    @Test
+    void localDisableRevokesEarlierTokensEvenIfAReloadMissesIt() {
+        registry.onAuthorizationChange(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_DISABLED, "erin"));
+        // A reload whose query ran before the disable committed
+        registry.reload();
+
+        assertThat(registry.isRevoked(token("erin", Instant.now().minusSeconds(30), "ROLE_VIEWER"))).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void changesAreRecordedForOtherInstances() {
+        registry.recordRevocation(AuthorizationChangeEvent.forUsers(
+                AuthorizationChangeEvent.Type.USER_ROLES_CHANGED, Set.of("alice", "bob")));
+        registry.recordRevocation(AuthorizationChangeEvent.forRole(
+                AuthorizationChangeEvent.Type.ROLE_MEMBERSHIP_CHANGED, "MANAGER"));
+        registry.recordRevocation(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.TOKENS_REVOKED, "alice"));
+
+        ArgumentCaptor<List<AuthorizationRevocation>> saved = ArgumentCaptor.forClass(List.class);
+        verify(revocationRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getAllValues().get(0))
+                .extracting(AuthorizationRevocation::getSubjectType, AuthorizationRevocation::getSubject)
+                .containsExactlyInAnyOrder(
+                        tuple(AuthorizationRevocation.SubjectType.USER, "alice"),
+                        tuple(AuthorizationRevocation.SubjectType.USER, "bob"));
+        assertThat(saved.getAllValues().get(1))
+                .extracting(AuthorizationRevocation::getSubjectType, AuthorizationRevocation::getSubject)
+                .containsExactly(tuple(AuthorizationRevocation.SubjectType.ROLE, "MANAGER"));
+    }
+
+    @Test
+    void nothingIsRecordedOrReloadedWhenStateful() {
+        ReflectionTestUtils.setField(registry, "statelessAuthentication", false);
+
+        registry.recordRevocation(AuthorizationChangeEvent.forUser(
+                AuthorizationChangeEvent.Type.USER_DELETED, "alice"));
+        registry.reload();
+
+        verify(revocationRepository, never()).saveAll(any());
+        verify(userRepository, never()).findDisabledUsernames();
+    }
+
+    /** Runs the change again until it happened within one clock second, and returns that second. */
+    private static Instant withinOneSecond(Runnable change) {
+        while (true) {
+            Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+            change.run();
+            if (Instant.now().truncatedTo(ChronoUnit.SECONDS).equals(before)) {
+                return before;
+            }
+        }
+    }
+
+    private static VerifiedToken token(String username, Instant issuedAt, String... authorities) {
+        return VerifiedToken.builder()
+                .subject(username)
+                .issuedAt(issuedAt.truncatedTo(ChronoUnit.SECONDS))
+                .expiresAt(issuedAt.plusSeconds(3600))
+                .authorities(List.of(authorities))
+                .build();
+    }
+
+    private static AuthorizationRevocation revocation(AuthorizationRevocation.SubjectType type, String subject,
+                                                      Instant notBefore) {
+        return AuthorizationRevocation.builder()
+                .subjectType(type)
+                .subject(subject)
+                .notBefore(LocalDateTime.ofInstant(notBefore, ZoneOffset.UTC))
+                .build();
+    }
+}
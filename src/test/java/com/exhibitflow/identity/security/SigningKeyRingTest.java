@@ -0,0 +1,114 @@
+package com.exhibitflow.identity.security;
+
+import com.exhibitflow.identity.model.SigningKey;
+import com.exhibitflow.identity.repository.SigningKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unknown kids reload the ring at most once per backoff period, however many arrive at once and
+ * whether or not the reload succeeds.
+ */
+class SigningKeyRingTest {
+
+    private final List<SigningKey> storedKeys = new CopyOnWriteArrayList<>();
+    private final SigningKeyRepository repository = mock(SigningKeyRepository.class);
+    private SigningKeyRing ring;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findByExpiresAtAfterOrderByActivatesAtAsc(any())).thenAnswer(invocation -> {
+            // A slow query, so concurrent lookups overlap with the reload
+            Thread.sleep(100);
+            return List.copyOf(storedKeys);
+        });
+        when(repository.save(any())).thenAnswer(invocation -> {
+            storedKeys.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        ring = new SigningKeyRing(repository);
+        ReflectionTestUtils.setField(ring, "tokenAlgorithm", "ES256");
+        ReflectionTestUtils.setField(ring, "secret", "test-secret-key-for-jwt-tokens-at-least-256-bits-long");
+        ReflectionTestUtils.setField(ring, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(ring, "refreshExpiration", 7_200_000L);
+        ReflectionTestUtils.setField(ring, "rotationInterval", Duration.ofDays(30));
+        ReflectionTestUtils.setField(ring, "prePublish", Duration.ofDays(1));
+        ReflectionTestUtils.invokeMethod(ring, "init");
+        clearInvocations(repository);
+    }
+
+    @Test
+    void knownKidNeverReloads() {
+        assertThat(ring.findVerificationKey(ring.getActiveKey().kid())).isNotNull();
+
+        verify(repository, times(0)).findByExpiresAtAfterOrderByActivatesAtAsc(any());
+    }
+
+    @Test
+    void unknownKidWithinBackoffDoesNotReload() {
+        assertThat(ring.findVerificationKey("forged")).isNull();
+
+        verify(repository, times(0)).findByExpiresAtAfterOrderByActivatesAtAsc(any());
+    }
+
+    @Test
+    void burstOfUnknownKidsReloadsOnce() throws Exception {
+        ReflectionTestUtils.setField(ring, "lastRefresh", Instant.EPOCH);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> lookups = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String kid = "forged-" + i;
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    return ring.findVerificationKey(kid);
+                }));
+            }
+            start.countDown();
+            for (Future<Object> lookup : lookups) {
+                assertThat(lookup.get()).isNull();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(repository, times(1)).findByExpiresAtAfterOrderByActivatesAtAsc(any());
+    }
+
+    @Test
+    void failedReloadStillBacksOff() {
+        ReflectionTestUtils.setField(ring, "lastRefresh", Instant.EPOCH);
+        when(repository.findByExpiresAtAfterOrderByActivatesAtAsc(any()))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+
+        assertThatThrownBy(() -> ring.findVerificationKey("forged-1"))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(ring.findVerificationKey("forged-2")).isNull();
+
+        verify(repository, times(1)).findByExpiresAtAfterOrderByActivatesAtAsc(any());
+    }
+}
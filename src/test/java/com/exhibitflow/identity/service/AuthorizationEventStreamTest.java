@@ -0,0 +1,165 @@
+package com.exhibitflow.identity.service;
+
+import com.exhibitflow.identity.event.AuthorizationChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Changes are handed off without writing on the committing thread, a subscriber that stops reading
+ * is dropped after the send timeout without holding up the others, and connections are capped.
+ */
+class AuthorizationEventStreamTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AuthorizationEventStream stream;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        stream.stop();
+    }
+
+    @Test
+    void stuckSubscriberIsDroppedWithoutDelayingOthers() {
+        stream = new AuthorizationEventStream(16, Duration.ofMinutes(30), 4, Duration.ofMillis(300));
+        RecordingEmitter healthy = subscribe(null, new RecordingEmitter());
+        RecordingEmitter stuck = subscribe(null, new RecordingEmitter(1));
+        await(() -> healthy.events.size() == 1 && stuck.events.size() == 1);
+
+        long started = System.nanoTime();
+        stream.onAuthorizationChange(change("alice"));
+        stream.onAuthorizationChange(change("bob"));
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(100));
+
+        await(() -> healthy.events.size() == 3);
+        assertThat(healthy.events.get(1)).contains("event:authorization-change").contains("alice");
+        assertThat(healthy.events.get(2)).contains("bob");
+        await(() -> stream.getSubscriberCount() == 1);
+        assertThat(stuck.completed).isTrue();
+        assertThat(healthy.completed).isFalse();
+
+        stream.onAuthorizationChange(change("carol"));
+        await(() -> healthy.events.size() == 4);
+    }
+
+    @Test
+    void failingSubscriberIsDropped() {
+        stream = new AuthorizationEventStream(16, Duration.ofMinutes(30), 4, Duration.ofSeconds(5));
+        RecordingEmitter failing = subscribe(null, new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        await(() -> stream.getSubscriberCount() == 0);
+        assertThat(failing.completed).isTrue();
+    }
+
+    @Test
+    void subscriptionsAreCapped() {
+        stream = new AuthorizationEventStream(16, Duration.ofMinutes(30), 2, Duration.ofMillis(300));
+        RecordingEmitter first = subscribe(null, new RecordingEmitter());
+        subscribe(null, new RecordingEmitter(1));
+
+        assertThat(stream.subscribe(null, new RecordingEmitter())).isEmpty();
+
+        stream.onAuthorizationChange(change("alice"));
+        await(() -> stream.getSubscriberCount() == 1);
+        assertThat(stream.subscribe(null, new RecordingEmitter())).isPresent();
+        assertThat(first.completed).isFalse();
+    }
+
+    @Test
+    void reconnectingSubscriberReceivesWhatItMissed() {
+        stream = new AuthorizationEventStream(16, Duration.ofMinutes(30), 4, Duration.ofSeconds(5));
+        RecordingEmitter first = subscribe(null, new RecordingEmitter());
+        stream.onAuthorizationChange(change("alice"));
+        stream.onAuthorizationChange(change("bob"));
+        stream.onAuthorizationChange(change("carol"));
+        await(() -> first.events.size() == 4);
+        String aliceId = first.events.get(1).lines()
+                .filter(line -> line.startsWith("id:"))
+                .findFirst().orElseThrow().substring(3);
+
+        RecordingEmitter resumed = subscribe(aliceId, new RecordingEmitter());
+        RecordingEmitter foreign = subscribe("other-1", new RecordingEmitter());
+
+        await(() -> resumed.events.size() == 2 && foreign.events.size() == 1);
+        assertThat(resumed.events.get(0)).contains("bob");
+        assertThat(resumed.events.get(1)).contains("carol");
+        assertThat(foreign.events.get(0)).contains("event:reset");
+    }
+
+    private RecordingEmitter subscribe(String lastEventId, RecordingEmitter emitter) {
+        assertThat(stream.subscribe(lastEventId, emitter)).isPresent();
+        return emitter;
+    }
+
+    private static AuthorizationChangeEvent change(String username) {
+        return AuthorizationChangeEvent.forUser(AuthorizationChangeEvent.Type.USER_ROLES_CHANGED, username);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 10s").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /** Records each event as its wire text; blocks on every send after the first {@code sendsBeforeBlocking}. */
+    private class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final int sendsBeforeBlocking;
+        private volatile boolean completed;
+
+        RecordingEmitter() {
+            this(Integer.MAX_VALUE);
+        }
+
+        RecordingEmitter(int sendsBeforeBlocking) {
+            this.sendsBeforeBlocking = sendsBeforeBlocking;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (events.size() >= sendsBeforeBlocking) {
+                // Ignores interrupts, like a write to a client that stopped reading
+                while (true) {
+                    try {
+                        release.await();
+                        return;
+                    } catch (InterruptedException e) {
+                        // keep blocking
+                    }
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(data -> text.append(data.getData()));
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}